@@ -0,0 +1,12 @@
+plugins {
+    id("build.java")
+}
+
+group = "com.coditory.quark"
+description = "Coditory Quark Context - Annotation Processor"
+
+dependencies {
+    testImplementation(project(":"))
+    testImplementation(libs.spock.core)
+    testImplementation(libs.junit.platform)
+}
@@ -0,0 +1,77 @@
+package com.coditory.quark.context.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.coditory.quark.context.processor.Names.BEAN;
+import static com.coditory.quark.context.processor.Names.CONFIGURATION;
+
+/**
+ * Writes index of top-level bean classes used by the context to skip classpath scanning.
+ * Entries from the previous index are kept if their classes still exist, so incremental compilation is supported.
+ */
+final class BeanIndexWriter {
+    // must match BeanIndex.RESOURCE_NAME
+    static final String RESOURCE_NAME = "META-INF/quark-context/beans.idx";
+    private final ProcessingEnvironment processingEnv;
+
+    BeanIndexWriter(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    void write(Set<String> classNames) {
+        Set<String> index = new TreeSet<>(classNames);
+        index.addAll(readPreviousIndex());
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_NAME);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by quark-context-processor. Do not edit.\n");
+                for (String className : index) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write bean index: " + e.getMessage());
+        }
+    }
+
+    private Set<String> readPreviousIndex() {
+        Set<String> classNames = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_NAME);
+            try (Reader reader = file.openReader(true); BufferedReader bufferedReader = new BufferedReader(reader)) {
+                String line;
+                while ((line = bufferedReader.readLine()) != null) {
+                    String className = line.strip();
+                    if (!className.isEmpty() && !className.startsWith("#") && isBeanClass(className)) {
+                        classNames.add(className);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no previous index
+        }
+        return classNames;
+    }
+
+    private boolean isBeanClass(String className) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(className);
+        return type != null && type.getAnnotationMirrors().stream()
+                .map(mirror -> mirror.getAnnotationType().toString())
+                .anyMatch(name -> name.equals(BEAN) || name.equals(CONFIGURATION));
+    }
+}
@@ -0,0 +1,146 @@
+package com.coditory.quark.context.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.coditory.quark.context.processor.Names.BEAN;
+import static com.coditory.quark.context.processor.Names.CONFIGURATION;
+import static com.coditory.quark.context.processor.Names.GENERATED_CLASS_NAME_SUFFIX;
+import static com.coditory.quark.context.processor.Names.INJECT;
+
+/**
+ * Generates reflection-free bean definitions for classes annotated with {@code @Bean} or {@code @Configuration}.
+ * Classes that cannot be handled without reflection (private members, {@code Lazy} dependencies, etc.)
+ * are skipped and registered reflectively at runtime.
+ */
+@SupportedAnnotationTypes({BEAN, CONFIGURATION})
+public final class BeanProcessor extends AbstractProcessor {
+    private final Set<String> indexedClasses = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    types.add((TypeElement) element);
+                }
+            }
+        }
+        for (TypeElement type : types) {
+            process(type);
+            if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+                indexedClasses.add(type.getQualifiedName().toString());
+            }
+        }
+        if (roundEnv.processingOver()) {
+            new BeanIndexWriter(processingEnv).write(indexedClasses);
+        }
+        return false;
+    }
+
+    private void process(TypeElement type) {
+        SourceBuilder source = new SourceBuilder(processingEnv);
+        try {
+            List<String> beans = generateBeans(type, source);
+            writeSource(type, source.generatedBeans(beans));
+        } catch (UnsupportedBeanException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Skipped generating bean definitions for " + type.getQualifiedName() + ": " + e.getMessage(), type);
+        }
+    }
+
+    private List<String> generateBeans(TypeElement type, SourceBuilder source) {
+        boolean configuration = source.hasAnnotation(type, CONFIGURATION);
+        if (configuration && source.hasAnnotation(type, BEAN)) {
+            // reported by the reflective registration
+            throw new UnsupportedBeanException("incompatible annotations");
+        }
+        validateType(type);
+        List<String> beans = new ArrayList<>();
+        ExecutableElement constructor = findConstructor(type);
+        beans.add(source.constructorBean(type, constructor, configuration ? CONFIGURATION : BEAN));
+        if (!configuration) {
+            return beans;
+        }
+        ElementFilter.methodsIn(type.getEnclosedElements()).stream()
+                .filter(method -> source.hasAnnotation(method, BEAN))
+                // same order as in the reflective registration
+                .sorted(Comparator.comparing(method -> method.getSimpleName().toString()))
+                .forEach(method -> beans.add(source.methodBean(type, method)));
+        return beans;
+    }
+
+    private void validateType(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedBeanException("abstract class");
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            throw new UnsupportedBeanException("local class");
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedBeanException("inner class");
+        }
+    }
+
+    private ExecutableElement findConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        if (constructors.size() == 1) {
+            return constructors.getFirst();
+        }
+        List<ExecutableElement> annotated = constructors.stream()
+                .filter(constructor -> constructor.getAnnotationMirrors().stream()
+                        .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(INJECT)))
+                .toList();
+        if (annotated.size() != 1) {
+            // reported by the reflective registration
+            throw new UnsupportedBeanException("ambiguous constructor");
+        }
+        return annotated.getFirst();
+    }
+
+    private void writeSource(TypeElement type, String content) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String generatedName = binaryName + GENERATED_CLASS_NAME_SUFFIX;
+        String simpleName = packageName.isEmpty()
+                ? generatedName
+                : generatedName.substring(packageName.length() + 1);
+        String header = packageName.isEmpty() ? "" : "package " + packageName + ";\n\n";
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(generatedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write("// Generated by quark-context-processor. Do not edit.\n");
+                writer.write(header);
+                writer.write(content.replace(SourceBuilder.CLASS_NAME_PLACEHOLDER, simpleName));
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write generated bean definitions: " + e.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.coditory.quark.context.processor;
+
+final class Names {
+    static final String ANNOTATIONS = "com.coditory.quark.context.annotations.";
+    static final String BEAN = ANNOTATIONS + "Bean";
+    static final String CONFIGURATION = ANNOTATIONS + "Configuration";
+    static final String INJECT = ANNOTATIONS + "Inject";
+    static final String DEPENDENCY = ANNOTATIONS + "Dependency";
+    static final String CONDITIONAL_ON_CLASS = ANNOTATIONS + "ConditionalOnClass";
+    static final String CONDITIONAL_ON_MISSING_CLASS = ANNOTATIONS + "ConditionalOnMissingClass";
+    static final String CONDITIONAL_ON_BEAN = ANNOTATIONS + "ConditionalOnBean";
+    static final String CONDITIONAL_ON_MISSING_BEAN = ANNOTATIONS + "ConditionalOnMissingBean";
+    static final String CONDITIONAL_ON_PROPERTY = ANNOTATIONS + "ConditionalOnProperty";
+    static final String CONDITIONAL_ON_DISABLED_PROPERTY = ANNOTATIONS + "ConditionalOnDisabledProperty";
+    static final String CONTEXT = "com.coditory.quark.context.";
+    static final String GENERATED_BEANS = CONTEXT + "GeneratedBeans";
+    static final String GENERATED_BEAN = CONTEXT + "GeneratedBean";
+    static final String BEAN_CONFIG = CONTEXT + "BeanConfig";
+    static final String BEAN_SCOPE = CONTEXT + "BeanScope";
+    static final String BEAN_POOL = CONTEXT + "BeanPool";
+    static final String BEAN_CONDITIONS = CONTEXT + "BeanConditions";
+    static final String RESOLUTION_CONTEXT = CONTEXT + "ResolutionContext";
+    static final String LAZY = CONTEXT + "Lazy";
+    static final String PROVIDER = CONTEXT + "Provider";
+    static final String SUPPLIER = "java.util.function.Supplier";
+    static final String LIST = "java.util.List";
+    // must match GeneratedBeans.CLASS_NAME_SUFFIX
+    static final String GENERATED_CLASS_NAME_SUFFIX = "_QuarkBeans";
+
+    private Names() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+}
@@ -0,0 +1,301 @@
+package com.coditory.quark.context.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.coditory.quark.context.processor.Names.BEAN;
+import static com.coditory.quark.context.processor.Names.BEAN_CONDITIONS;
+import static com.coditory.quark.context.processor.Names.BEAN_CONFIG;
+import static com.coditory.quark.context.processor.Names.BEAN_POOL;
+import static com.coditory.quark.context.processor.Names.BEAN_SCOPE;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_BEAN;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_CLASS;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_DISABLED_PROPERTY;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_MISSING_BEAN;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_MISSING_CLASS;
+import static com.coditory.quark.context.processor.Names.CONDITIONAL_ON_PROPERTY;
+import static com.coditory.quark.context.processor.Names.DEPENDENCY;
+import static com.coditory.quark.context.processor.Names.GENERATED_BEAN;
+import static com.coditory.quark.context.processor.Names.GENERATED_BEANS;
+import static com.coditory.quark.context.processor.Names.LAZY;
+import static com.coditory.quark.context.processor.Names.LIST;
+import static com.coditory.quark.context.processor.Names.PROVIDER;
+import static com.coditory.quark.context.processor.Names.RESOLUTION_CONTEXT;
+import static com.coditory.quark.context.processor.Names.SUPPLIER;
+
+/**
+ * Builds java source of generated bean definitions.
+ * Throws {@link UnsupportedBeanException} when a bean cannot be created without reflection.
+ */
+final class SourceBuilder {
+    static final String CLASS_NAME_PLACEHOLDER = "$CLASS_NAME$";
+    private static final String INDENT = "            ";
+    private final Elements elements;
+    private final Types types;
+
+    SourceBuilder(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    String generatedBeans(List<String> beans) {
+        String beanList = beans.stream()
+                .map(bean -> INDENT + bean)
+                .collect(Collectors.joining(",\n"));
+        return "@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n"
+                + "public final class " + CLASS_NAME_PLACEHOLDER + " implements " + GENERATED_BEANS + " {\n"
+                + "    private static final java.util.List<" + GENERATED_BEAN + "<?>> BEANS = java.util.List.of(\n"
+                + beanList + "\n"
+                + "    );\n\n"
+                + "    @Override\n"
+                + "    public java.util.List<" + GENERATED_BEAN + "<?>> getBeans() {\n"
+                + "        return BEANS;\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    String constructorBean(TypeElement type, ExecutableElement constructor, String annotationName) {
+        if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedBeanException("private constructor");
+        }
+        String typeName = typeName(type.asType());
+        AnnotationMirror annotation = findAnnotation(type, annotationName);
+        String source = "constructor: " + type.getQualifiedName() + "(" + parameterTypes(constructor, true) + ")";
+        String factory = "context -> new " + typeName + "(" + arguments(constructor) + ")";
+        return generatedBean(typeName, beanName(annotation), annotation, source, condition(conditions(type)), factory);
+    }
+
+    String methodBean(TypeElement configuration, ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedBeanException("private @Bean method: " + method.getSimpleName());
+        }
+        if (method.getReturnType().getKind() == TypeKind.VOID) {
+            throw new UnsupportedBeanException("void @Bean method: " + method.getSimpleName());
+        }
+        String configurationTypeName = typeName(configuration.asType());
+        String invocation = method.getSimpleName() + "(" + arguments(method) + ")";
+        // configuration is passed from its own bean holder, like in the reflective registration
+        String target = method.getModifiers().contains(Modifier.STATIC) ? configurationTypeName : "configuration";
+        String factory = "(" + configurationTypeName + " configuration, " + RESOLUTION_CONTEXT + " context) -> "
+                + target + "." + invocation;
+        List<String> conditions = new ArrayList<>(conditions(configuration));
+        conditions.addAll(conditions(method));
+        AnnotationMirror annotation = findAnnotation(method, BEAN);
+        String source = "method: " + method.getSimpleName() + "(" + parameterTypes(method, false) + ")";
+        return generatedBean(typeName(method.getReturnType()), beanName(annotation), annotation, source, condition(conditions), factory);
+    }
+
+    boolean hasAnnotation(Element element, String annotationName) {
+        return findAnnotation(element, annotationName) != null;
+    }
+
+    private String generatedBean(String typeName, String name, AnnotationMirror annotation, String source, String condition, String factory) {
+        String config = "new " + BEAN_CONFIG + "("
+                + value(annotation, "eager") + ", "
+                + value(annotation, "creationTimeMs") + ", "
+                + value(annotation, "creationTotalTimeMs")
+                + scopeConfig(annotation) + ")";
+        return "new " + GENERATED_BEAN + "<>(\n"
+                + INDENT + "        " + typeName + ".class,\n"
+                + INDENT + "        " + literal(name) + ",\n"
+                + INDENT + "        " + config + ",\n"
+                + INDENT + "        " + literal(source) + ",\n"
+                + INDENT + "        " + condition + ",\n"
+                + INDENT + "        " + factory + ")";
+    }
+
+    // only @Bean defines scope, @Configuration is always a singleton
+    private String scopeConfig(AnnotationMirror annotation) {
+        if (!annotation.getAnnotationType().toString().equals(BEAN)) {
+            return "";
+        }
+        VariableElement scope = (VariableElement) value(annotation, "scope");
+        return ", " + BEAN_SCOPE + "." + scope.getSimpleName() + ", " + value(annotation, "poolSize");
+    }
+
+    private String arguments(ExecutableElement executable) {
+        return executable.getParameters().stream()
+                .map(this::argument)
+                .collect(Collectors.joining(", "));
+    }
+
+    private String parameterTypes(ExecutableElement executable, boolean qualified) {
+        return executable.getParameters().stream()
+                .map(parameter -> qualified
+                        ? typeName(parameter.asType())
+                        : simpleTypeName(parameter.asType()))
+                .collect(Collectors.joining(qualified ? "," : ", "));
+    }
+
+    private String argument(VariableElement parameter) {
+        AnnotationMirror dependency = findAnnotation(parameter, DEPENDENCY);
+        String name = "";
+        boolean optional = false;
+        if (dependency != null) {
+            String nameValue = (String) value(dependency, "name");
+            name = nameValue.isBlank() ? (String) value(dependency, "value") : nameValue;
+            optional = (Boolean) value(dependency, "optional");
+        }
+        return dependency(parameter.asType(), name, optional);
+    }
+
+    private String dependency(TypeMirror type, String name, boolean optional) {
+        String rawType = typeName(type);
+        if (LAZY.equals(rawType)) {
+            throw new UnsupportedBeanException("Lazy dependency");
+        }
+        if (BEAN_POOL.equals(rawType)) {
+            throw new UnsupportedBeanException("BeanPool dependency");
+        }
+        if (PROVIDER.equals(rawType) || SUPPLIER.equals(rawType)) {
+            return "() -> " + dependency(typeArgument(type), name, optional);
+        }
+        if (LIST.equals(rawType)) {
+            if (!name.isEmpty()) {
+                // reported by the reflective registration
+                throw new UnsupportedBeanException("named list dependency");
+            }
+            String itemType = typeName(typeArgument(type));
+            return optional
+                    ? "context.getAllOrEmpty(" + itemType + ".class)"
+                    : "context.getAll(" + itemType + ".class)";
+        }
+        String method = optional ? "getOrNull" : "get";
+        return name.isEmpty()
+                ? "context." + method + "(" + rawType + ".class)"
+                : "context." + method + "(" + rawType + ".class, " + literal(name) + ")";
+    }
+
+    private TypeMirror typeArgument(TypeMirror type) {
+        if (!(type instanceof DeclaredType declaredType) || declaredType.getTypeArguments().size() != 1) {
+            throw new UnsupportedBeanException("missing type argument: " + type);
+        }
+        TypeMirror argument = declaredType.getTypeArguments().getFirst();
+        if (argument instanceof WildcardType wildcardType) {
+            if (wildcardType.getExtendsBound() == null || wildcardType.getSuperBound() != null) {
+                throw new UnsupportedBeanException("unexpected wildcard type: " + type);
+            }
+            return wildcardType.getExtendsBound();
+        }
+        return argument;
+    }
+
+    private List<String> conditions(Element element) {
+        List<String> conditions = new ArrayList<>();
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String condition = switch (annotation.getAnnotationType().toString()) {
+                case CONDITIONAL_ON_CLASS -> BEAN_CONDITIONS + ".onClass(" + strings(annotation, "value") + ")";
+                case CONDITIONAL_ON_MISSING_CLASS -> BEAN_CONDITIONS + ".onMissingClass(" + strings(annotation, "value") + ")";
+                case CONDITIONAL_ON_BEAN -> BEAN_CONDITIONS + ".onBean(" + beanCondition(annotation) + ")";
+                case CONDITIONAL_ON_MISSING_BEAN -> BEAN_CONDITIONS + ".onMissingBean(" + beanCondition(annotation) + ")";
+                case CONDITIONAL_ON_PROPERTY -> BEAN_CONDITIONS + ".onProperty("
+                        + "new String[]{" + strings(annotation, values(annotation, "value").isEmpty() ? "name" : "value") + "}, "
+                        + literal((String) value(annotation, "havingValue")) + ", "
+                        + value(annotation, "matchIfMissing") + ")";
+                case CONDITIONAL_ON_DISABLED_PROPERTY -> BEAN_CONDITIONS + ".onDisabledProperty(" + strings(annotation, "value") + ")";
+                default -> null;
+            };
+            if (condition != null) {
+                conditions.add(condition);
+            }
+        }
+        return conditions;
+    }
+
+    private String condition(List<String> conditions) {
+        if (conditions.isEmpty()) {
+            return BEAN_CONDITIONS + ".always()";
+        }
+        if (conditions.size() == 1) {
+            return conditions.getFirst();
+        }
+        return BEAN_CONDITIONS + ".allOf(" + String.join(", ", conditions) + ")";
+    }
+
+    private String beanCondition(AnnotationMirror annotation) {
+        String typesKey = values(annotation, "value").isEmpty() ? "type" : "value";
+        String beanTypes = values(annotation, typesKey).stream()
+                .map(value -> typeName((TypeMirror) value.getValue()) + ".class")
+                .collect(Collectors.joining(", "));
+        return "new Class<?>[]{" + beanTypes + "}, new String[]{" + strings(annotation, "name") + "}";
+    }
+
+    private String strings(AnnotationMirror annotation, String key) {
+        return values(annotation, key).stream()
+                .map(value -> literal((String) value.getValue()))
+                .collect(Collectors.joining(", "));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> values(AnnotationMirror annotation, String key) {
+        return (List<? extends AnnotationValue>) value(annotation, key);
+    }
+
+    private Object value(AnnotationMirror annotation, String key) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(key)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalArgumentException("Missing annotation attribute: " + key);
+    }
+
+    private String beanName(AnnotationMirror annotation) {
+        String name = (String) value(annotation, "name");
+        return name.isBlank() ? (String) value(annotation, "value") : name;
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationName) {
+        return element.getAnnotationMirrors().stream()
+                .filter(mirror -> mirror.getAnnotationType().toString().equals(annotationName))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = types.erasure(type);
+        if (erased.getKind().isPrimitive()) {
+            return erased.getKind().name().toLowerCase();
+        }
+        if (erased instanceof ArrayType arrayType) {
+            return typeName(arrayType.getComponentType()) + "[]";
+        }
+        if (erased instanceof DeclaredType declaredType) {
+            TypeElement element = (TypeElement) declaredType.asElement();
+            for (Element current = element; current instanceof TypeElement; current = current.getEnclosingElement()) {
+                if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                    throw new UnsupportedBeanException("private type: " + element.getQualifiedName());
+                }
+            }
+            return element.getQualifiedName().toString();
+        }
+        throw new UnsupportedBeanException("unsupported type: " + type);
+    }
+
+    private String simpleTypeName(TypeMirror type) {
+        String name = typeName(type);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    private String literal(String value) {
+        return elements.getConstantExpression(value);
+    }
+}
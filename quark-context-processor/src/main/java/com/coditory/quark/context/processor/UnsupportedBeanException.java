@@ -0,0 +1,7 @@
+package com.coditory.quark.context.processor;
+
+final class UnsupportedBeanException extends RuntimeException {
+    UnsupportedBeanException(String message) {
+        super(message);
+    }
+}
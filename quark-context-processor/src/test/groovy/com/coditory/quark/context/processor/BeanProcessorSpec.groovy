@@ -0,0 +1,243 @@
+package com.coditory.quark.context.processor
+
+import com.coditory.quark.context.Context
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.tools.JavaCompiler
+import javax.tools.ToolProvider
+import java.nio.file.Files
+import java.nio.file.Path
+
+class BeanProcessorSpec extends Specification {
+    @TempDir
+    Path sourceDir
+
+    @TempDir
+    Path outputDir
+
+    def "should generate bean definitions for a bean class"() {
+        given:
+            writeSource("samples/Foo.java", """
+                package samples;
+                import com.coditory.quark.context.annotations.Bean;
+                import com.coditory.quark.context.annotations.Dependency;
+                import java.util.List;
+                import java.util.function.Supplier;
+
+                @Bean(name = "foo")
+                public class Foo {
+                    public final Bar bar;
+                    public final List<Bar> bars;
+                    public final Supplier<Bar> barSupplier;
+
+                    Foo(Bar bar, List<? extends Bar> bars, Supplier<Bar> barSupplier, @Dependency(optional = true) Runnable missing) {
+                        this.bar = bar;
+                        this.bars = List.copyOf(bars);
+                        this.barSupplier = barSupplier;
+                    }
+                }
+            """)
+            writeSource("samples/Bar.java", """
+                package samples;
+                import com.coditory.quark.context.annotations.Bean;
+
+                @Bean
+                public class Bar {
+                }
+            """)
+        when:
+            ClassLoader classLoader = compile()
+        then:
+            Files.exists(outputDir.resolve("samples/Foo_QuarkBeans.class"))
+            Files.exists(outputDir.resolve("samples/Bar_QuarkBeans.class"))
+
+        when:
+            Class<?> fooType = classLoader.loadClass("samples.Foo")
+            Context context = Context.builder()
+                    .scanClass(fooType)
+                    .scanClass(classLoader.loadClass("samples.Bar"))
+                    .build()
+            Object foo = context.get(fooType, "foo")
+        then:
+            foo.bar != null
+            foo.bars == [foo.bar]
+            foo.barSupplier.get() == foo.bar
+    }
+
+    def "should generate bean definitions for a configuration with conditions"() {
+        given:
+            writeSource("samples/Config.java", """
+                package samples;
+                import com.coditory.quark.context.annotations.Bean;
+                import com.coditory.quark.context.annotations.ConditionalOnProperty;
+                import com.coditory.quark.context.annotations.Configuration;
+
+                @Configuration
+                public class Config {
+                    @Bean
+                    String text(Integer number) {
+                        return "text-" + number;
+                    }
+
+                    @Bean
+                    static Integer number() {
+                        return 42;
+                    }
+
+                    @Bean
+                    @ConditionalOnProperty("optional.enabled")
+                    Long optionalNumber() {
+                        return 1L;
+                    }
+                }
+            """)
+        when:
+            Class<?> configType = compile().loadClass("samples.Config")
+            Context context = Context.builder()
+                    .scanClass(configType)
+                    .build()
+        then:
+            context.get(String) == "text-42"
+            context.getOrNull(Long) == null
+
+        when:
+            context = Context.builder()
+                    .setProperty("optional.enabled", true)
+                    .scanClass(configType)
+                    .build()
+        then:
+            context.get(Long) == 1L
+    }
+
+    def "should create bean from method of its own configuration when configuration type is ambiguous"() {
+        given:
+            writeSource("samples/Config.java", """
+                package samples;
+                import com.coditory.quark.context.annotations.Bean;
+                import com.coditory.quark.context.annotations.Configuration;
+
+                @Configuration
+                public class Config {
+                    public String prefix = "generated";
+
+                    @Bean
+                    String text(Integer number) {
+                        return prefix + "-" + number;
+                    }
+
+                    @Bean
+                    static Integer number() {
+                        return 42;
+                    }
+                }
+            """)
+        and:
+            Class<?> configType = compile().loadClass("samples.Config")
+            Object otherConfig = configType.getConstructor().newInstance()
+            otherConfig.prefix = "other"
+
+        when:
+            Context context = Context.builder()
+                    .scanClass(configType)
+                    .add(otherConfig, "other")
+                    .build()
+        then:
+            Files.exists(outputDir.resolve("samples/Config_QuarkBeans.class"))
+            context.get(String) == "generated-42"
+    }
+
+    def "should skip bean definitions that require reflection"() {
+        given:
+            writeSource("samples/WithLazy.java", """
+                package samples;
+                import com.coditory.quark.context.Lazy;
+                import com.coditory.quark.context.annotations.Bean;
+
+                @Bean
+                public class WithLazy {
+                    public final Lazy<String> text;
+
+                    WithLazy(Lazy<String> text) {
+                        this.text = text;
+                    }
+                }
+            """)
+        when:
+            Class<?> type = compile().loadClass("samples.WithLazy")
+        then:
+            !Files.exists(outputDir.resolve("samples/WithLazy_QuarkBeans.class"))
+
+        when:
+            Context context = Context.builder()
+                    .add("text")
+                    .scanClass(type)
+                    .build()
+        then:
+            context.get(type).text.get() == "text"
+    }
+
+    def "should generate bean index used by package scan"() {
+        given:
+            writeSource("samples/Foo.java", """
+                package samples;
+                import com.coditory.quark.context.annotations.Bean;
+
+                @Bean
+                public class Foo {
+                    @Bean
+                    public static class Nested {
+                    }
+                }
+            """)
+            writeSource("samples/sub/Bar.java", """
+                package samples.sub;
+                import com.coditory.quark.context.annotations.Configuration;
+
+                @Configuration
+                public class Bar {
+                }
+            """)
+            writeSource("samples/Plain.java", """
+                package samples;
+
+                public class Plain {
+                }
+            """)
+        when:
+            ClassLoader classLoader = compile()
+        then:
+            Files.readAllLines(outputDir.resolve("META-INF/quark-context/beans.idx"))
+                    .findAll { !it.startsWith("#") } == ["samples.Foo", "samples.sub.Bar"]
+
+        when:
+            Context context = Context.builder()
+                    .setClassLoader(classLoader)
+                    .scanPackage("samples")
+                    .build()
+        then:
+            context.contains(classLoader.loadClass("samples.Foo"))
+            context.contains(classLoader.loadClass("samples.sub.Bar"))
+    }
+
+    private void writeSource(String path, String content) {
+        Path file = sourceDir.resolve(path)
+        Files.createDirectories(file.parent)
+        Files.writeString(file, content.stripIndent())
+    }
+
+    private ClassLoader compile() {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler()
+        List<String> sources = Files.walk(sourceDir)
+                .filter { it.toString().endsWith(".java") }
+                .collect { it.toString() }
+        List<String> args = [
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", BeanProcessor.name,
+                "-d", outputDir.toString()
+        ] + sources
+        int result = compiler.run(null, null, null, args as String[])
+        assert result == 0
+        return new URLClassLoader([outputDir.toUri().toURL()] as URL[], getClass().classLoader)
+    }
+}
@@ -1,5 +1,7 @@
 rootProject.name = "quark-context"
 
+include("quark-context-processor")
+
 includeBuild("build-logic")
 
 plugins {
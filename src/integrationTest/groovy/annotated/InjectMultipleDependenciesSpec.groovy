@@ -63,4 +63,31 @@ class InjectMultipleDependenciesSpec extends Specification {
             e.cause.message == "Could not create bean from constructor: public annotated.samples.named_multiple_deps.Bar(java.util.List)"
             e.cause.cause.message.startsWith("Detected named @Dependency for a list of dependencies")
     }
+
+    def "should defer resolution of lazy, provided and supplied dependencies"() {
+        given:
+            Context context = Context.scanPackage(annotated.samples.deferred_deps.Bar)
+        when:
+            annotated.samples.deferred_deps.Bar bar = context.get(annotated.samples.deferred_deps.Bar)
+        then:
+            annotated.samples.deferred_deps.Foo.created == 0
+
+        when:
+            annotated.samples.deferred_deps.Foo foo = bar.lazyFoo.get()
+        then:
+            annotated.samples.deferred_deps.Foo.created == 1
+            bar.providedFoo.get() == foo
+            bar.suppliedFoos.get() == [foo]
+    }
+
+    def "should detect cyclic dependency resolved by lazy dependency"() {
+        given:
+            Context context = Context.scanPackage(annotated.samples.deferred_deps.Baz)
+        when:
+            context.get(annotated.samples.deferred_deps.Baz)
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Could not create bean: Baz"
+            e.cause.message == "Detected cyclic dependency: Baz -> BarBaz -> Baz"
+    }
 }
@@ -0,0 +1,20 @@
+package annotated.samples.deferred_deps
+
+import com.coditory.quark.context.Lazy
+import com.coditory.quark.context.Provider
+import com.coditory.quark.context.annotations.Bean
+
+import java.util.function.Supplier
+
+@Bean
+class Bar {
+    final Lazy<Foo> lazyFoo
+    final Provider<Foo> providedFoo
+    final Supplier<List<Foo>> suppliedFoos
+
+    Bar(Lazy<Foo> lazyFoo, Provider<Foo> providedFoo, Supplier<List<Foo>> suppliedFoos) {
+        this.lazyFoo = lazyFoo
+        this.providedFoo = providedFoo
+        this.suppliedFoos = suppliedFoos
+    }
+}
@@ -0,0 +1,9 @@
+package annotated.samples.deferred_deps
+
+import com.coditory.quark.context.annotations.Bean
+
+@Bean
+class BarBaz {
+    BarBaz(Baz baz) {
+    }
+}
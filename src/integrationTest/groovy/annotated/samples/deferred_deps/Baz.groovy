@@ -0,0 +1,11 @@
+package annotated.samples.deferred_deps
+
+import com.coditory.quark.context.Lazy
+import com.coditory.quark.context.annotations.Bean
+
+@Bean
+class Baz {
+    Baz(Lazy<BarBaz> barBaz) {
+        barBaz.get()
+    }
+}
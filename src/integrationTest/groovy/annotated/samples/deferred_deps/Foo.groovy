@@ -0,0 +1,12 @@
+package annotated.samples.deferred_deps
+
+import com.coditory.quark.context.annotations.Bean
+
+@Bean
+class Foo {
+    static int created = 0
+
+    Foo() {
+        Foo.created++
+    }
+}
@@ -0,0 +1,116 @@
+package com.coditory.quark.context;
+
+import com.coditory.quark.context.annotations.Close;
+import com.coditory.quark.context.annotations.Init;
+import com.coditory.quark.context.annotations.PostInit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reflection metadata of a bean class shared by all contexts in the JVM.
+ * Lifecycle methods include methods inherited from superclasses, superclass methods go first.
+ */
+final class BeanClassMetadata {
+    private static final ClassValue<BeanClassMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected BeanClassMetadata computeValue(Class<?> type) {
+            return new BeanClassMetadata(type);
+        }
+    };
+
+    static BeanClassMetadata of(Class<?> type) {
+        requireNonNull(type);
+        return CACHE.get(type);
+    }
+
+    private final List<Method> initMethods;
+    private final List<Method> postInitMethods;
+    private final List<Method> closeMethods;
+    private final Map<Executable, InjectionPlan> injectionPlans = new ConcurrentHashMap<>();
+    private final Map<Executable, ExecutableInvoker> invokers = new ConcurrentHashMap<>();
+
+    private BeanClassMetadata(Class<?> type) {
+        this.initMethods = findAnnotatedMethods(type, Init.class);
+        this.postInitMethods = findAnnotatedMethods(type, PostInit.class);
+        this.closeMethods = findAnnotatedMethods(type, Close.class);
+    }
+
+    List<Method> getInitMethods() {
+        return initMethods;
+    }
+
+    List<Method> getPostInitMethods() {
+        return postInitMethods;
+    }
+
+    List<Method> getCloseMethods() {
+        return closeMethods;
+    }
+
+    InjectionPlan getInjectionPlan(Executable executable) {
+        InjectionPlan plan = injectionPlans.get(executable);
+        if (plan == null) {
+            // compilation errors are not cached, so they are reported on every resolution
+            plan = injectionPlans.computeIfAbsent(executable, DependencyResolver::compileInjectionPlan);
+        }
+        return plan;
+    }
+
+    ExecutableInvoker getInvoker(Executable executable) {
+        ExecutableInvoker invoker = invokers.get(executable);
+        if (invoker == null) {
+            invoker = invokers.computeIfAbsent(executable, ExecutableInvoker::of);
+        }
+        return invoker;
+    }
+
+    private static List<Method> findAnnotatedMethods(Class<?> type, Class<? extends Annotation> annotation) {
+        List<List<Method>> hierarchy = new ArrayList<>();
+        Set<String> overridden = new HashSet<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            List<Method> methods = new ArrayList<>();
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic()) {
+                    continue;
+                }
+                boolean isPrivate = Modifier.isPrivate(method.getModifiers());
+                String signature = signature(method);
+                if (!isPrivate && overridden.contains(signature)) {
+                    continue;
+                }
+                if (method.isAnnotationPresent(annotation)) {
+                    method.setAccessible(true);
+                    methods.add(method);
+                }
+                if (!isPrivate && !Modifier.isStatic(method.getModifiers())) {
+                    overridden.add(signature);
+                }
+            }
+            hierarchy.add(methods);
+        }
+        List<Method> result = new ArrayList<>();
+        for (int i = hierarchy.size() - 1; i >= 0; --i) {
+            result.addAll(hierarchy.get(i));
+        }
+        return List.copyOf(result);
+    }
+
+    private static String signature(Method method) {
+        StringBuilder builder = new StringBuilder(method.getName()).append('(');
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            builder.append(parameterType.getName()).append(',');
+        }
+        return builder.append(')').toString();
+    }
+}
@@ -0,0 +1,189 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import static com.coditory.quark.context.BeanDescriptor.descriptor;
+import static com.coditory.quark.context.Preconditions.expectNonNull;
+
+/**
+ * Predicates equivalent to the conditional annotations.
+ * Used by the annotation based registration and by generated bean definitions.
+ * Arguments are resolved when a predicate is created, so evaluation does not allocate.
+ */
+public final class BeanConditions {
+    private static final Predicate<ConditionContext> ALWAYS = context -> true;
+
+    private BeanConditions() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> always() {
+        return ALWAYS;
+    }
+
+    @NotNull
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static Predicate<ConditionContext> allOf(@NotNull Predicate<ConditionContext>... conditions) {
+        expectNonNull(conditions, "conditions");
+        Predicate<ConditionContext>[] filtered = Arrays.stream(conditions)
+                .filter(condition -> condition != ALWAYS)
+                .toArray(Predicate[]::new);
+        if (filtered.length == 0) {
+            return ALWAYS;
+        }
+        if (filtered.length == 1) {
+            return filtered[0];
+        }
+        return new AllOf(filtered);
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onClass(@NotNull String... canonicalNames) {
+        expectNonNull(canonicalNames, "canonicalNames");
+        String[] names = canonicalNames.clone();
+        return context -> {
+            for (String name : names) {
+                if (!context.hasClass(name)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onMissingClass(@NotNull String... canonicalNames) {
+        expectNonNull(canonicalNames, "canonicalNames");
+        String[] names = canonicalNames.clone();
+        return context -> {
+            for (String name : names) {
+                if (context.hasClass(name)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onBean(@NotNull Class<?>[] types, @NotNull String[] names) {
+        expectNonNull(types, "types");
+        expectNonNull(names, "names");
+        BeanDescriptor<?>[] descriptors = descriptors(types);
+        String[] namesCopy = names.clone();
+        return context -> {
+            for (BeanDescriptor<?> descriptor : descriptors) {
+                if (!context.hasDescriptor(descriptor)) {
+                    return false;
+                }
+            }
+            for (String name : namesCopy) {
+                if (!context.hasBean(name)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onMissingBean(@NotNull Class<?>[] types, @NotNull String[] names) {
+        expectNonNull(types, "types");
+        expectNonNull(names, "names");
+        BeanDescriptor<?>[] descriptors = descriptors(types);
+        String[] namesCopy = names.clone();
+        return context -> {
+            for (BeanDescriptor<?> descriptor : descriptors) {
+                if (context.hasDescriptor(descriptor)) {
+                    return false;
+                }
+            }
+            for (String name : namesCopy) {
+                if (context.hasBean(name)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onProperty(@NotNull String[] names, @NotNull String havingValue, boolean matchIfMissing) {
+        expectNonNull(names, "names");
+        expectNonNull(havingValue, "havingValue");
+        String[] namesCopy = names.clone();
+        return context -> {
+            for (String name : namesCopy) {
+                Object property = context.getProperty(name);
+                boolean matches = property == null
+                        ? matchIfMissing
+                        : property.toString().equals(havingValue);
+                if (!matches) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @NotNull
+    public static Predicate<ConditionContext> onDisabledProperty(@NotNull String... names) {
+        expectNonNull(names, "names");
+        String[] namesCopy = names.clone();
+        return context -> {
+            for (String name : namesCopy) {
+                Object property = context.getProperty(name);
+                if (property != null && !property.toString().equals("false")) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Returns true if the condition and all its components were created by this class.
+     */
+    static boolean isBuiltIn(Predicate<ConditionContext> condition) {
+        if (condition instanceof AllOf allOf) {
+            for (Predicate<ConditionContext> component : allOf.conditions) {
+                if (!isBuiltIn(component)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return condition.getClass().getNestHost() == BeanConditions.class;
+    }
+
+    private static BeanDescriptor<?>[] descriptors(Class<?>[] types) {
+        BeanDescriptor<?>[] descriptors = new BeanDescriptor<?>[types.length];
+        for (int i = 0; i < types.length; ++i) {
+            descriptors[i] = descriptor(types[i]);
+        }
+        return descriptors;
+    }
+
+    private static final class AllOf implements Predicate<ConditionContext> {
+        private final Predicate<ConditionContext>[] conditions;
+
+        private AllOf(Predicate<ConditionContext>[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean test(ConditionContext context) {
+            for (Predicate<ConditionContext> condition : conditions) {
+                if (!condition.test(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -3,12 +3,25 @@ package com.coditory.quark.context;
 import com.coditory.quark.context.annotations.Bean;
 import com.coditory.quark.context.annotations.Configuration;
 
-public record BeanConfig(boolean eager, int creationTimeMs, int creationTotalTimeMs) {
+import static com.coditory.quark.context.Preconditions.expect;
+import static com.coditory.quark.context.Preconditions.expectNonNull;
+
+public record BeanConfig(boolean eager, int creationTimeMs, int creationTotalTimeMs, BeanScope scope, int poolSize) {
     static final BeanConfig DEFAULT = new BeanConfig(false, -1, -1);
 
+    public BeanConfig {
+        expectNonNull(scope, "scope");
+        expect(poolSize >= 0, "Expected non-negative pool size. Got: " + poolSize);
+        expect(!eager || scope == BeanScope.SINGLETON, "Expected eager bean to be a singleton. Got: " + scope);
+    }
+
+    public BeanConfig(boolean eager, int creationTimeMs, int creationTotalTimeMs) {
+        this(eager, creationTimeMs, creationTotalTimeMs, BeanScope.SINGLETON, 0);
+    }
+
     static BeanConfig fromAnnotationOrDefault(Bean annotation) {
         if (annotation == null) return DEFAULT;
-        return new BeanConfig(annotation.eager(), annotation.creationTimeMs(), annotation.creationTotalTimeMs());
+        return new BeanConfig(annotation.eager(), annotation.creationTimeMs(), annotation.creationTotalTimeMs(), annotation.scope(), annotation.poolSize());
     }
 
     static BeanConfig fromAnnotationOrDefault(Configuration annotation) {
@@ -17,6 +30,12 @@ public record BeanConfig(boolean eager, int creationTimeMs, int creationTotalTim
     }
 
     BeanConfig withEager(boolean eager) {
-        return new BeanConfig(eager, creationTimeMs, creationTotalTimeMs);
+        return new BeanConfig(eager, creationTimeMs, creationTotalTimeMs, scope, poolSize);
+    }
+
+    int effectivePoolSize() {
+        return poolSize > 0
+                ? poolSize
+                : Runtime.getRuntime().availableProcessors();
     }
-}
\ No newline at end of file
+}
@@ -2,17 +2,31 @@ package com.coditory.quark.context;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
+
 import static java.util.Objects.requireNonNull;
 
 public record BeanDescriptor<T>(Class<T> type, String name) {
+    // unnamed descriptors are created once per class
+    private static final ClassValue<BeanDescriptor<?>> UNNAMED_DESCRIPTORS = new ClassValue<>() {
+        @Override
+        protected BeanDescriptor<?> computeValue(Class<?> type) {
+            return new BeanDescriptor<>(type, null);
+        }
+    };
+
     @NotNull
+    @SuppressWarnings("unchecked")
     public static <T> BeanDescriptor<T> descriptor(@NotNull Class<T> type) {
-        return new BeanDescriptor<>(type, null);
+        requireNonNull(type);
+        return (BeanDescriptor<T>) UNNAMED_DESCRIPTORS.get(type);
     }
 
     @NotNull
     public static <T> BeanDescriptor<T> descriptor(@NotNull Class<T> type, String name) {
-        return new BeanDescriptor<>(type, name);
+        return name == null || name.isBlank()
+                ? descriptor(type)
+                : new BeanDescriptor<>(type, name);
     }
 
     public BeanDescriptor(@NotNull Class<T> type, String name) {
@@ -22,7 +36,7 @@ public record BeanDescriptor<T>(Class<T> type, String name) {
 
     @NotNull
     public <R> BeanDescriptor<R> withType(@NotNull Class<R> type) {
-        return new BeanDescriptor<>(type, name);
+        return descriptor(type, name);
     }
 
     public boolean hasName() {
@@ -36,6 +50,18 @@ public record BeanDescriptor<T>(Class<T> type, String name) {
                 : type.getSimpleName();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BeanDescriptor<?> that)) return false;
+        return type == that.type && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + Objects.hashCode(name);
+    }
+
     @Override
     public String toString() {
         return "BeanDescriptor{" + toShortString() + "}";
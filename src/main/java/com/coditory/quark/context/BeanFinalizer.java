@@ -1,6 +1,5 @@
 package com.coditory.quark.context;
 
-import com.coditory.quark.context.annotations.Close;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,22 +20,30 @@ final class BeanFinalizer {
         if (bean instanceof Context) {
             return;
         }
+        if (bean instanceof BeanPool<?> pool) {
+            closePool(pool, descriptor, context);
+            return;
+        }
         if (bean instanceof Closeable) {
             closeBean((Closeable) bean, descriptor);
         }
-        for (Method method : bean.getClass().getDeclaredMethods()) {
-            if (method.isAnnotationPresent(Close.class)) {
-                method.setAccessible(true);
-                closeBean(bean, descriptor, method, context);
-            }
+        for (Method method : BeanClassMetadata.of(bean.getClass()).getCloseMethods()) {
+            closeBean(bean, descriptor, method, context);
         }
     }
 
+    private static <T> void closePool(BeanPool<T> pool, BeanDescriptor<?> descriptor, ResolutionContext context) {
+        pool.close(bean -> closeBean(bean, descriptor, context));
+        log.debug("Closed bean pool {} with metrics {}", descriptor.toShortString(), pool.getMetrics());
+    }
+
     private static void closeBean(Object bean, BeanDescriptor<?> descriptor, Method method, ResolutionContext context) {
         Timer timer = Timer.start();
         try {
             Object[] args = resolveArguments(method, context);
-            method.invoke(bean, args);
+            BeanClassMetadata.of(method.getDeclaringClass())
+                    .getInvoker(method)
+                    .invoke(bean, args);
             log.debug("Closed bean {} using method {} in {}", descriptor.toShortString(), simplifyMethodName(method), timer.measureAndFormat());
         } catch (UnsupportedOperationException e) {
             log.debug("Could not close bean {} because of UnsupportedOperationException thrown from {}", descriptor.toShortString(), simplifyMethodName(method));
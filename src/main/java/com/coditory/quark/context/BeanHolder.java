@@ -6,14 +6,33 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.coditory.quark.context.BeanFinalizer.closeBean;
 import static com.coditory.quark.context.BeanInitializer.initializeBean;
 import static com.coditory.quark.context.BeanPostInitializer.postInitializeBean;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Collectors.toUnmodifiableSet;
 
+/**
+ * Holds a single bean instance and creates it on first access.
+ * Prototype beans are created on every access and not cached. Pooled beans are cached as a {@link BeanPool}.
+ * <p>
+ * Thread safety: bean creation is single-flight per holder. The first thread to access a missing bean
+ * creates it under a per-holder {@link ReentrantLock} (that does not pin virtual threads), other threads wait for it.
+ * A thread that waits for a holder locked by a thread that (transitively) waits for it fails with
+ * {@link CyclicDependencyException} instead of deadlocking.
+ * The bean is published through a volatile write only after all {@code @Init} methods complete,
+ * so every reader that observes the bean also observes the effects of its initialization.
+ * {@code @PostInit} runs under the same lock and {@link #postInitialize(Context)} returns only after it completes,
+ * which gives the same guarantee to top-level lookups that go through the {@link Context}.
+ * Beans are post initialized by the thread that created them, once it holds no bean holder locks.
+ */
 final class BeanHolder<T> {
     static <T> BeanHolder<T> holder(BeanDescriptor<T> descriptor, BeanCreator<T> creator, BeanConfig config) {
         return new BeanHolder<>(descriptor, creator, config);
@@ -23,21 +42,32 @@ final class BeanHolder<T> {
         return new BeanHolder<>(descriptor, creator, BeanConfig.DEFAULT);
     }
 
+    // threads blocked on a holder lock, used to detect cycles between beans created concurrently
+    private static final Map<Thread, BeanHolder<?>> waitingThreads = new ConcurrentHashMap<>();
+    private static final long LOCK_CHECK_INTERVAL_MS = 10;
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private final BeanCreator<T> creator;
     private final BeanDescriptor<T> descriptor;
     private final BeanConfig config;
-    private final Set<Class<?>> classHierarchy;
+    private final Set<BeanDescriptor<?>> classHierarchyDescriptors;
+    private final HolderLock lock = new HolderLock();
+    // beans looked up during creation and lifecycle of this bean
+    private final Set<BeanHolder<?>> dependencies = ConcurrentHashMap.newKeySet();
     private EventEmitter eventEmitter;
-    private T bean;
-    private boolean initialized = false;
-    private boolean postInitialized = false;
-    private boolean closed = false;
+    private volatile T bean;
+    private volatile BeanPool<T> pool;
+    // bean under initialization, visible only to the thread holding the lock
+    private T initializing;
+    private volatile boolean postInitialized = false;
+    private boolean postInitializing = false;
+    private volatile boolean closed = false;
 
     private BeanHolder(BeanDescriptor<T> descriptor, BeanCreator<T> creator, BeanConfig config) {
         this.creator = requireNonNull(creator);
         this.descriptor = requireNonNull(descriptor);
-        this.classHierarchy = HierarchyIterator.getClassHierarchy(descriptor.type());
+        this.classHierarchyDescriptors = HierarchyIterator.getClassHierarchy(descriptor.type()).stream()
+                .map(descriptor::withType)
+                .collect(toUnmodifiableSet());
         this.config = config;
     }
 
@@ -53,7 +83,11 @@ final class BeanHolder<T> {
     }
 
     public boolean isInitialized() {
-        return initialized;
+        return bean != null;
+    }
+
+    BeanScope getScope() {
+        return config.scope();
     }
 
     boolean isPostInitialized() {
@@ -62,12 +96,26 @@ final class BeanHolder<T> {
 
     void postInitialize(Context context) {
         if (postInitialized) return;
-        if (bean == null) {
-            throw new IllegalStateException("Expected bean to exist before post initialization");
+        PendingPostInitialization pending = context.getPendingPostInitialization();
+        lock(pending);
+        try {
+            // post initializing flag prevents recursion when @PostInit method (transitively) looks up the same bean
+            if (postInitialized || postInitializing) return;
+            T bean = this.bean;
+            if (bean == null) {
+                throw new IllegalStateException("Expected bean to exist before post initialization");
+            }
+            ResolutionContext resolutionContext = new ResolutionContext(context, this, ResolutionPath.of(descriptor));
+            postInitializing = true;
+            try {
+                postInitializeBean(bean, descriptor, resolutionContext);
+            } finally {
+                postInitializing = false;
+                postInitialized = true;
+            }
+        } finally {
+            unlock(pending);
         }
-        ResolutionContext resolutionContext = new ResolutionContext(context, ResolutionPath.of(descriptor));
-        postInitialized = true;
-        postInitializeBean(bean, descriptor, resolutionContext);
     }
 
     Class<T> getBeanType() {
@@ -79,9 +127,7 @@ final class BeanHolder<T> {
     }
 
     Set<BeanDescriptor<?>> getBeanClassHierarchyDescriptors() {
-        return classHierarchy.stream()
-                .map(descriptor::withType)
-                .collect(toSet());
+        return classHierarchyDescriptors;
     }
 
     public BeanDescriptor<T> getDescriptor() {
@@ -89,51 +135,194 @@ final class BeanHolder<T> {
     }
 
     boolean isCached() {
-        return bean != null;
+        return bean != null || pool != null;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Set<BeanHolder<?>> getDependencies() {
+        return dependencies;
     }
 
     boolean isActive(ConditionContext context) {
         return creator.isActive(context);
     }
 
+    BeanCreator<T> getCreator() {
+        return creator;
+    }
+
     @Nullable
     public T get(ResolutionContext context) {
-        if (bean == null) {
-            expectEventEmitter();
-            ResolutionPath path = context.getResolutionPath();
-            if (path.contains(descriptor)) {
-                throw new CyclicDependencyException("Detected cyclic dependency: " + path.toPathAsString(descriptor));
+        addDependent(context);
+        return switch (config.scope()) {
+            case SINGLETON -> getSingleton(context);
+            case PROTOTYPE -> createPrototype(context);
+            case POOLED -> throw new ContextException("Expected pooled bean to be borrowed from its pool: "
+                    + descriptor.toShortString());
+        };
+    }
+
+    BeanPool<T> getPool(ResolutionContext context) {
+        if (config.scope() != BeanScope.POOLED) {
+            throw new ContextException("Expected pooled bean: " + descriptor.toShortString());
+        }
+        addDependent(context);
+        BeanPool<T> pool = this.pool;
+        if (pool != null) {
+            return pool;
+        }
+        PendingPostInitialization pending = context.getPendingPostInitialization();
+        lock(pending);
+        try {
+            pool = this.pool;
+            if (pool == null) {
+                // pooled instances are created outside the resolution path of the bean that borrows them
+                ResolutionContext root = context.withoutPath();
+                pool = new BeanPool<>(descriptor, config.effectivePoolSize(), () -> createPrototype(root));
+                this.pool = pool;
+            }
+            return pool;
+        } finally {
+            unlock(pending);
+        }
+    }
+
+    private void addDependent(ResolutionContext context) {
+        BeanHolder<?> dependent = context.getHolder();
+        if (dependent != null && dependent != this) {
+            dependent.dependencies.add(this);
+        }
+    }
+
+    private T getSingleton(ResolutionContext context) {
+        T bean = this.bean;
+        if (bean != null) {
+            return bean;
+        }
+        PendingPostInitialization pending = context.getPendingPostInitialization();
+        lock(pending);
+        try {
+            bean = this.bean;
+            if (bean == null) {
+                bean = initializing != null
+                        ? initializing
+                        : createBean(context);
             }
-            path = path.add(descriptor);
-            context = context.withPath(path);
-            eventEmitter.emit(new ContextEvent.BeanPreCreateEvent(descriptor, config, path));
-            T bean = createBean(context);
-            eventEmitter.emit(new ContextEvent.BeanPostCreateEvent(descriptor, config, path, bean));
+            return bean;
+        } finally {
+            unlock(pending);
         }
-        return bean;
     }
 
     private T createBean(ResolutionContext context) {
+        context = enterResolutionPath(context);
+        T created = create(context);
+        initializing = created;
+        try {
+            initializeBean(created, descriptor, context);
+        } finally {
+            initializing = null;
+        }
+        // publish only a fully initialized bean
+        this.bean = created;
+        context.schedulePostInitialization(this);
+        eventEmitter.emit(new ContextEvent.BeanPostCreateEvent(descriptor, config, context.getResolutionPath(), created));
+        return created;
+    }
+
+    // not cached instances are initialized and post initialized right away
+    private T createPrototype(ResolutionContext context) {
+        context = enterResolutionPath(context);
+        T created = create(context);
+        initializeBean(created, descriptor, context);
+        postInitializeBean(created, descriptor, context);
+        eventEmitter.emit(new ContextEvent.BeanPostCreateEvent(descriptor, config, context.getResolutionPath(), created));
+        return created;
+    }
+
+    private ResolutionContext enterResolutionPath(ResolutionContext context) {
+        expectEventEmitter();
+        ResolutionPath path = context.getResolutionPath();
+        if (path.contains(descriptor)) {
+            throw new CyclicDependencyException("Detected cyclic dependency: " + path.toPathAsString(descriptor));
+        }
+        return context.withHolder(this, path.add(descriptor));
+    }
+
+    private T create(ResolutionContext context) {
+        eventEmitter.emit(new ContextEvent.BeanPreCreateEvent(descriptor, config, context.getResolutionPath()));
         Timer timer = Timer.start();
-        bean = creator.create(context);
+        T created = creator.create(context);
         log.debug("Created bean {} in {}", descriptor.toShortString(), timer.measureAndFormat());
-        if (!initialized) {
-            initializeBean(bean, descriptor, context);
-            initialized = true;
-        }
-        return bean;
+        return created;
     }
 
     void close(ResolutionContext context) {
-        if (!closed) {
+        if (closed) return;
+        PendingPostInitialization pending = context.getPendingPostInitialization();
+        lock(pending);
+        try {
+            if (closed) return;
             expectEventEmitter();
+            Object bean = config.scope() == BeanScope.POOLED ? pool : this.bean;
             eventEmitter.emit(new ContextEvent.BeanPreCloseEvent(descriptor, config, bean));
-            closeBean(bean, descriptor, context);
+            closeBean(bean, descriptor, context.withHolder(this));
             closed = true;
             eventEmitter.emit(new ContextEvent.BeanPostCloseEvent(descriptor, config, bean));
+        } finally {
+            unlock(pending);
+        }
+        // beans created by @Close methods
+        context.postInitializePending();
+    }
+
+    private void lock(PendingPostInitialization pending) {
+        lock();
+        pending.locked();
+    }
+
+    private void unlock(PendingPostInitialization pending) {
+        pending.unlocked();
+        lock.unlock();
+    }
+
+    private void lock() {
+        if (lock.tryLock()) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        waitingThreads.put(current, this);
+        try {
+            while (!lock.tryLock(LOCK_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (isWaitingForItself(current)) {
+                    throw new CyclicDependencyException("Detected cyclic dependency between beans created concurrently: "
+                            + descriptor.toShortString());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContextException("Interrupted while waiting for bean: " + descriptor.toShortString(), e);
+        } finally {
+            waitingThreads.remove(current);
         }
     }
 
+    private boolean isWaitingForItself(Thread current) {
+        Set<Thread> visited = new HashSet<>();
+        Thread owner = lock.owner();
+        while (owner != null && visited.add(owner)) {
+            if (owner == current) {
+                return true;
+            }
+            BeanHolder<?> awaited = waitingThreads.get(owner);
+            owner = awaited == null ? null : awaited.lock.owner();
+        }
+        return false;
+    }
+
     private void expectEventEmitter() {
         if (eventEmitter == null) {
             throw new IllegalStateException("Expected BeanHolder to have eventEmitter");
@@ -144,5 +333,11 @@ final class BeanHolder<T> {
     public String toString() {
         return "BeanHolder{" + descriptor.toShortString() + '}';
     }
+
+    private static final class HolderLock extends ReentrantLock {
+        Thread owner() {
+            return getOwner();
+        }
+    }
 }
 
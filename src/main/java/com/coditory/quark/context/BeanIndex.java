@@ -0,0 +1,40 @@
+package com.coditory.quark.context;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build-time index of top-level classes annotated with {@code @Bean} or {@code @Configuration}.
+ * It is generated by quark-context-processor. Classpath locations that contain an index are not scanned.
+ * Format: one class name per line, lines starting with {@code #} are comments.
+ */
+final class BeanIndex {
+    static final String RESOURCE_NAME = "META-INF/quark-context/beans.idx";
+
+    private BeanIndex() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    static List<String> read(InputStream input) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String className = line.strip();
+                if (!className.isEmpty() && !className.startsWith("#")) {
+                    classNames.add(className);
+                }
+            }
+        }
+        return classNames;
+    }
+
+    static String toResourceName(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+}
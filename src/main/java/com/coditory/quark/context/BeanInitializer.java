@@ -1,6 +1,5 @@
 package com.coditory.quark.context;
 
-import com.coditory.quark.context.annotations.Init;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,11 +16,8 @@ final class BeanInitializer {
     }
 
     static void initializeBean(Object bean, BeanDescriptor<?> descriptor, ResolutionContext context) {
-        for (Method method : bean.getClass().getDeclaredMethods()) {
-            if (method.isAnnotationPresent(Init.class)) {
-                method.setAccessible(true);
-                initializeBean(bean, descriptor, method, context);
-            }
+        for (Method method : BeanClassMetadata.of(bean.getClass()).getInitMethods()) {
+            initializeBean(bean, descriptor, method, context);
         }
     }
 
@@ -29,7 +25,9 @@ final class BeanInitializer {
         Timer timer = Timer.start();
         try {
             Object[] args = resolveArguments(method, context);
-            method.invoke(bean, args);
+            BeanClassMetadata.of(method.getDeclaringClass())
+                    .getInvoker(method)
+                    .invoke(bean, args);
         } catch (Exception e) {
             throw new BeanInitializationException("Could not initialize bean: " + descriptor.toShortString() + " using method: " + simplifyMethodName(method), e);
         }
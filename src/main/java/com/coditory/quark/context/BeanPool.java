@@ -0,0 +1,211 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.coditory.quark.context.Preconditions.expect;
+import static com.coditory.quark.context.Preconditions.expectNonNull;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded pool of instances of a {@link BeanScope#POOLED} bean.
+ * <p>
+ * Instances are created on demand, up to the pool size. When all instances are borrowed
+ * {@link #borrow()} waits for one to be released. Every borrowed instance must be returned with {@link #release(Object)}.
+ * Idle instances are closed when the context is closed, borrowed ones when they are released after that.
+ */
+public final class BeanPool<T> {
+    private final BeanDescriptor<T> descriptor;
+    private final int maxSize;
+    private final Supplier<T> factory;
+    // uses a lock that does not pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<T> idle = new ArrayDeque<>();
+    private final Set<T> borrowed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Consumer<T> finalizer;
+    private int size = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long waits = 0;
+    private long waitNanos = 0;
+
+    BeanPool(BeanDescriptor<T> descriptor, int maxSize, Supplier<T> factory) {
+        this.descriptor = requireNonNull(descriptor);
+        this.maxSize = maxSize;
+        this.factory = requireNonNull(factory);
+    }
+
+    @NotNull
+    public BeanDescriptor<T> getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Returns an idle instance, creates a new one if the pool is not full
+     * or waits for an instance to be released.
+     */
+    @NotNull
+    public T borrow() {
+        lock.lock();
+        try {
+            boolean waited = false;
+            long waitStart = 0;
+            while (idle.isEmpty() && size >= maxSize) {
+                expectOpen();
+                if (!waited) {
+                    waited = true;
+                    waitStart = System.nanoTime();
+                    ++waits;
+                }
+                awaitRelease();
+            }
+            if (waited) {
+                waitNanos += System.nanoTime() - waitStart;
+            }
+            expectOpen();
+            T bean = idle.pollLast();
+            if (bean != null) {
+                ++hits;
+                borrowed.add(bean);
+                return bean;
+            }
+            ++misses;
+            ++size;
+        } finally {
+            lock.unlock();
+        }
+        return create();
+    }
+
+    /**
+     * Returns the instance to the pool.
+     */
+    public void release(@NotNull T bean) {
+        expectNonNull(bean, "bean");
+        Consumer<T> finalizer;
+        lock.lock();
+        try {
+            expect(borrowed.remove(bean), "Expected bean borrowed from the pool: " + descriptor.toShortString());
+            finalizer = this.finalizer;
+            if (finalizer == null) {
+                idle.addLast(bean);
+                released.signal();
+                return;
+            }
+            --size;
+        } finally {
+            lock.unlock();
+        }
+        // pool was closed while the instance was borrowed
+        finalizer.accept(bean);
+    }
+
+    @NotNull
+    public BeanPoolMetrics getMetrics() {
+        lock.lock();
+        try {
+            return new BeanPoolMetrics(hits, misses, waits, Duration.ofNanos(waitNanos), size, idle.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return finalizer != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes idle instances. Instances borrowed at that time are closed when released.
+     */
+    void close(Consumer<T> finalizer) {
+        requireNonNull(finalizer);
+        List<T> closed;
+        lock.lock();
+        try {
+            if (this.finalizer != null) {
+                return;
+            }
+            this.finalizer = finalizer;
+            closed = new ArrayList<>(idle);
+            size -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        RuntimeException failure = null;
+        for (T bean : closed) {
+            try {
+                finalizer.accept(bean);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private T create() {
+        T bean = null;
+        try {
+            bean = factory.get();
+            return bean;
+        } finally {
+            lock.lock();
+            try {
+                if (bean != null) {
+                    borrowed.add(bean);
+                } else {
+                    // free the reserved place for the waiting threads
+                    --size;
+                    released.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            released.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContextException("Interrupted while waiting for pooled bean: " + descriptor.toShortString());
+        }
+    }
+
+    private void expectOpen() {
+        if (finalizer != null) {
+            throw new ContextException("Bean pool already closed: " + descriptor.toShortString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BeanPool{" + descriptor.toShortString() + '}';
+    }
+}
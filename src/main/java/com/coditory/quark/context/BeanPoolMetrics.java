@@ -0,0 +1,16 @@
+package com.coditory.quark.context;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of {@link BeanPool} usage.
+ *
+ * @param hits     borrows served by an idle instance
+ * @param misses   borrows that created a new instance
+ * @param waits    borrows that waited for an instance to be released
+ * @param waitTime total time spent waiting for released instances
+ * @param size     number of instances created by the pool and not closed yet
+ * @param idle     number of instances available for borrowing
+ */
+public record BeanPoolMetrics(long hits, long misses, long waits, Duration waitTime, int size, int idle) {
+}
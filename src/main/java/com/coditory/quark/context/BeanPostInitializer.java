@@ -1,6 +1,5 @@
 package com.coditory.quark.context;
 
-import com.coditory.quark.context.annotations.PostInit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,11 +16,8 @@ final class BeanPostInitializer {
     }
 
     static void postInitializeBean(Object bean, BeanDescriptor<?> descriptor, ResolutionContext context) {
-        for (Method method : bean.getClass().getDeclaredMethods()) {
-            if (method.isAnnotationPresent(PostInit.class)) {
-                method.setAccessible(true);
-                postInitializeBean(bean, descriptor, method, context);
-            }
+        for (Method method : BeanClassMetadata.of(bean.getClass()).getPostInitMethods()) {
+            postInitializeBean(bean, descriptor, method, context);
         }
     }
 
@@ -29,7 +25,9 @@ final class BeanPostInitializer {
         Timer timer = Timer.start();
         try {
             Object[] args = resolveArguments(method, context);
-            method.invoke(bean, args);
+            BeanClassMetadata.of(method.getDeclaringClass())
+                    .getInvoker(method)
+                    .invoke(bean, args);
         } catch (Exception e) {
             throw new BeanInitializationException("Could not post initialize bean: " + descriptor.toShortString() + " using method: " + simplifyMethodName(method), e);
         }
@@ -0,0 +1,43 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Handle to a bean resolved once when the reference is created.
+ * Retrieving an already created bean is a single array read.
+ */
+public final class BeanRef<T> {
+    private final Context context;
+    private final BeanDescriptor<T> descriptor;
+    private final BeanHolder<?> holder;
+    private final int slot;
+
+    BeanRef(Context context, BeanDescriptor<T> descriptor, BeanHolder<?> holder, int slot) {
+        this.context = requireNonNull(context);
+        this.descriptor = requireNonNull(descriptor);
+        this.holder = requireNonNull(holder);
+        this.slot = slot;
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public T get() {
+        Object bean = context.getFromSlot(slot);
+        if (bean != null) {
+            return (T) bean;
+        }
+        return context.getAndStoreInSlot(descriptor, holder, slot);
+    }
+
+    @NotNull
+    public BeanDescriptor<T> getDescriptor() {
+        return descriptor;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanRef{" + descriptor.toShortString() + '}';
+    }
+}
@@ -0,0 +1,38 @@
+package com.coditory.quark.context;
+
+import java.util.List;
+
+/**
+ * Precomputed outcome of resolving a single bean by descriptor.
+ * Computed once per context, so lookups do not need to re-apply the "single unnamed wins" rule.
+ */
+record BeanResolution(BeanHolder<?> holder, int candidates) {
+    static final BeanResolution MISSING = new BeanResolution(null, 0);
+
+    static BeanResolution resolve(List<BeanHolder<?>> holders) {
+        if (holders == null || holders.isEmpty()) {
+            return MISSING;
+        }
+        if (holders.size() == 1) {
+            return new BeanResolution(holders.getFirst(), 1);
+        }
+        BeanHolder<?> unnamed = null;
+        for (BeanHolder<?> holder : holders) {
+            if (!holder.getDescriptor().hasName()) {
+                if (unnamed != null) {
+                    return new BeanResolution(null, holders.size());
+                }
+                unnamed = holder;
+            }
+        }
+        return new BeanResolution(unnamed, holders.size());
+    }
+
+    boolean isMissing() {
+        return candidates == 0;
+    }
+
+    boolean isAmbiguous() {
+        return holder == null && candidates > 1;
+    }
+}
@@ -0,0 +1,18 @@
+package com.coditory.quark.context;
+
+public enum BeanScope {
+    /**
+     * Single bean instance created on first access and cached by the context.
+     */
+    SINGLETON,
+    /**
+     * New bean instance created on every lookup.
+     * Prototype beans are not cached, so they are not closed by the context.
+     */
+    PROTOTYPE,
+    /**
+     * Bean instances borrowed from and released to a bounded {@link BeanPool}.
+     * Idle instances are closed when the context is closed.
+     */
+    POOLED
+}
@@ -0,0 +1,190 @@
+package com.coditory.quark.context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads class level annotations from class file bytes without loading the class.
+ * Only {@code RuntimeVisibleAnnotations} attribute of the class is checked.
+ */
+final class ClassFileAnnotations {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.UTF_8);
+
+    private ClassFileAnnotations() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    static List<String> descriptors(List<Class<?>> annotationTypes) {
+        return annotationTypes.stream()
+                .map(type -> "L" + type.getName().replace('.', '/') + ";")
+                .toList();
+    }
+
+    /**
+     * @param annotationDescriptors annotation type descriptors, e.g. {@code Lcom/acme/Bean;}
+     * @throws IllegalArgumentException when bytes are not a valid class file
+     */
+    static boolean hasAnyAnnotation(byte[] classFile, List<String> annotationDescriptors) {
+        try {
+            return new Reader(classFile).hasAnyAnnotation(toBytes(annotationDescriptors));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated class file", e);
+        }
+    }
+
+    private static byte[][] toBytes(List<String> values) {
+        byte[][] result = new byte[values.size()][];
+        for (int i = 0; i < values.size(); ++i) {
+            result[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasAnyAnnotation(byte[][] descriptors) {
+            if (readInt() != MAGIC) {
+                throw new IllegalArgumentException("Invalid class file magic number");
+            }
+            skip(4); // minor and major version
+            int constantPoolCount = readUnsignedShort();
+            boolean[] annotationTypes = new boolean[constantPoolCount];
+            int attributeNameIndex = 0;
+            boolean anyAnnotationType = false;
+            for (int i = 1; i < constantPoolCount; ++i) {
+                int tag = readUnsignedByte();
+                switch (tag) {
+                    case 1 -> {
+                        int length = readUnsignedShort();
+                        if (equalsAt(RUNTIME_VISIBLE_ANNOTATIONS, length)) {
+                            attributeNameIndex = i;
+                        } else if (equalsAny(descriptors, length)) {
+                            annotationTypes[i] = true;
+                            anyAnnotationType = true;
+                        }
+                        skip(length);
+                    }
+                    case 7, 8, 16, 19, 20 -> skip(2);
+                    case 15 -> skip(3);
+                    case 3, 4, 9, 10, 11, 12, 17, 18 -> skip(4);
+                    case 5, 6 -> {
+                        skip(8);
+                        ++i; // long and double take two entries
+                    }
+                    default -> throw new IllegalArgumentException("Unknown constant pool tag: " + tag);
+                }
+            }
+            if (!anyAnnotationType || attributeNameIndex == 0) {
+                return false;
+            }
+            skip(6); // access flags, this class, super class
+            skip(2 * readUnsignedShort()); // interfaces
+            skipMembers(); // fields
+            skipMembers(); // methods
+            int attributesCount = readUnsignedShort();
+            for (int i = 0; i < attributesCount; ++i) {
+                int nameIndex = readUnsignedShort();
+                int length = readInt();
+                if (nameIndex == attributeNameIndex) {
+                    return containsAnnotation(annotationTypes);
+                }
+                skip(length);
+            }
+            return false;
+        }
+
+        private boolean containsAnnotation(boolean[] annotationTypes) {
+            int annotationsCount = readUnsignedShort();
+            for (int i = 0; i < annotationsCount; ++i) {
+                int typeIndex = readUnsignedShort();
+                if (typeIndex < annotationTypes.length && annotationTypes[typeIndex]) {
+                    return true;
+                }
+                skipElementValuePairs();
+            }
+            return false;
+        }
+
+        private void skipMembers() {
+            int count = readUnsignedShort();
+            for (int i = 0; i < count; ++i) {
+                skip(6); // access flags, name, descriptor
+                int attributesCount = readUnsignedShort();
+                for (int j = 0; j < attributesCount; ++j) {
+                    skip(2);
+                    skip(readInt());
+                }
+            }
+        }
+
+        private void skipAnnotation() {
+            skip(2); // type
+            skipElementValuePairs();
+        }
+
+        private void skipElementValuePairs() {
+            int pairsCount = readUnsignedShort();
+            for (int i = 0; i < pairsCount; ++i) {
+                skip(2); // name
+                skipElementValue();
+            }
+        }
+
+        private void skipElementValue() {
+            int tag = readUnsignedByte();
+            switch (tag) {
+                case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> skip(2);
+                case 'e' -> skip(4);
+                case '@' -> skipAnnotation();
+                case '[' -> {
+                    int count = readUnsignedShort();
+                    for (int i = 0; i < count; ++i) {
+                        skipElementValue();
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown annotation element tag: " + tag);
+            }
+        }
+
+        private boolean equalsAny(byte[][] values, int length) {
+            for (byte[] value : values) {
+                if (equalsAt(value, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean equalsAt(byte[] value, int length) {
+            return value.length == length
+                    && Arrays.equals(bytes, position, position + length, value, 0, length);
+        }
+
+        private void skip(int count) {
+            if (count < 0 || position + count > bytes.length) {
+                throw new IndexOutOfBoundsException("Class file position out of bounds");
+            }
+            position += count;
+        }
+
+        private int readUnsignedByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        private int readUnsignedShort() {
+            return (readUnsignedByte() << 8) | readUnsignedByte();
+        }
+
+        private int readInt() {
+            return (readUnsignedShort() << 16) | readUnsignedShort();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.coditory.quark.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of jar scan results.
+ * Entries are keyed by jar path and scanned package and are valid as long as jar size and modification time do not change.
+ * Cache file is memory-mapped when loaded and replaced atomically when saved.
+ */
+final class ClassPathScanCache {
+    private static final Logger logger = LoggerFactory.getLogger(ClassPathScanCache.class.getName());
+    private static final int MAGIC = 0x51534331; // QSC1
+    private static final int VERSION = 1;
+
+    static ClassPathScanCache load(Path file) {
+        Map<Key, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                readEntries(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), entries);
+                logger.debug("Loaded {} entries from classpath scan cache: {}", entries.size(), file);
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+                logger.warn("Could not read classpath scan cache: " + file + ". Scanning without cache.", e);
+                entries.clear();
+            }
+        }
+        return new ClassPathScanCache(file, entries);
+    }
+
+    private final Path file;
+    private final Map<Key, Entry> entries;
+    private volatile boolean modified = false;
+
+    private ClassPathScanCache(Path file, Map<Key, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    Entry get(File jar, String resourcePrefix, Fingerprint fingerprint) {
+        Entry entry = entries.get(new Key(jar.getPath(), resourcePrefix));
+        return entry != null && entry.fingerprint().equals(fingerprint)
+                ? entry
+                : null;
+    }
+
+    void put(File jar, String resourcePrefix, Fingerprint fingerprint, List<String> classNames, List<File> classPath) {
+        entries.put(new Key(jar.getPath(), resourcePrefix), new Entry(fingerprint, classNames, classPath));
+        modified = true;
+    }
+
+    void save() {
+        if (!modified) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, serialize());
+                moveAtomically(temp, file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            modified = false;
+            logger.debug("Saved {} entries to classpath scan cache: {}", entries.size(), file);
+        } catch (IOException e) {
+            logger.warn("Could not save classpath scan cache: " + file, e);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            Map<Key, Entry> snapshot = Map.copyOf(entries);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(snapshot.size());
+            for (Map.Entry<Key, Entry> item : snapshot.entrySet()) {
+                Key key = item.getKey();
+                Entry entry = item.getValue();
+                writeString(output, key.location());
+                writeString(output, key.resourcePrefix());
+                output.writeLong(entry.fingerprint().size());
+                output.writeLong(entry.fingerprint().lastModified());
+                output.writeInt(entry.classNames().size());
+                for (String className : entry.classNames()) {
+                    writeString(output, className);
+                }
+                output.writeInt(entry.classPath().size());
+                for (File path : entry.classPath()) {
+                    writeString(output, path.getPath());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void readEntries(ByteBuffer buffer, Map<Key, Entry> result) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Unsupported classpath scan cache format");
+        }
+        int count = readCount(buffer);
+        for (int i = 0; i < count; ++i) {
+            Key key = new Key(readString(buffer), readString(buffer));
+            Fingerprint fingerprint = new Fingerprint(buffer.getLong(), buffer.getLong());
+            int classNamesCount = readCount(buffer);
+            List<String> classNames = new ArrayList<>(classNamesCount);
+            for (int j = 0; j < classNamesCount; ++j) {
+                classNames.add(readString(buffer));
+            }
+            int classPathCount = readCount(buffer);
+            List<File> classPath = new ArrayList<>(classPathCount);
+            for (int j = 0; j < classPathCount; ++j) {
+                classPath.add(new File(readString(buffer)));
+            }
+            result.put(key, new Entry(fingerprint, List.copyOf(classNames), List.copyOf(classPath)));
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readCount(buffer);
+        String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length)).toString();
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid classpath scan cache entry");
+        }
+        return count;
+    }
+
+    record Fingerprint(long size, long lastModified) {
+        static Fingerprint of(File file) {
+            return new Fingerprint(file.length(), file.lastModified());
+        }
+    }
+
+    record Entry(Fingerprint fingerprint, List<String> classNames, List<File> classPath) {
+    }
+
+    private record Key(String location, String resourcePrefix) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of classpath scanning.
+ * Jars are excluded by glob patterns matched against jar file names.
+ * Classpath locations are scanned using the executor.
+ * Null cache file disables the scan cache.
+ */
+record ClassPathScanConfig(List<PathMatcher> excludedJars, Executor executor, @Nullable Path cacheFile) {
+    static final ClassPathScanConfig DEFAULT = new ClassPathScanConfig(List.of(), Runnable::run, null);
+
+    ClassPathScanConfig withExcludedJar(String globPattern) {
+        List<PathMatcher> excludedJars = new ArrayList<>(this.excludedJars);
+        excludedJars.add(FileSystems.getDefault().getPathMatcher("glob:" + globPattern));
+        return new ClassPathScanConfig(List.copyOf(excludedJars), executor, cacheFile);
+    }
+
+    ClassPathScanConfig withExecutor(Executor executor) {
+        return new ClassPathScanConfig(excludedJars, executor, cacheFile);
+    }
+
+    ClassPathScanConfig withCacheFile(Path cacheFile) {
+        return new ClassPathScanConfig(excludedJars, executor, cacheFile);
+    }
+
+    boolean isExcluded(File jar) {
+        if (excludedJars.isEmpty()) {
+            return false;
+        }
+        Path fileName = jar.toPath().getFileName();
+        return excludedJars.stream()
+                .anyMatch(matcher -> matcher.matches(fileName));
+    }
+}
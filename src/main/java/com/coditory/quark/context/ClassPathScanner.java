@@ -8,21 +8,28 @@ import java.util.Queue;
 import java.util.function.Predicate;
 
 final class ClassPathScanner implements Iterator<Class<?>> {
-    static ClassPathScanner scanPackageAndSubPackages(String packageName, Predicate<String> filter, ClassLoader classLoader) {
+    static ClassPathScanner scanPackageAndSubPackages(
+            String packageName,
+            Predicate<String> filter,
+            ClassLoader classLoader,
+            ClassPathScanConfig config
+    ) {
         try {
-            List<String> classes = getClasses(packageName, filter, classLoader);
+            List<String> classes = getClasses(packageName, filter, classLoader, config);
             return new ClassPathScanner(classes, classLoader);
         } catch (IOException e) {
             throw new RuntimeException("Could not scan classpath", e);
         }
     }
 
-    private static List<String> getClasses(String packageName, Predicate<String> filter, ClassLoader classLoader)
-            throws IOException {
-        return ClassPath.from(classLoader)
-                .getTopLevelClassesRecursive(packageName)
+    private static List<String> getClasses(
+            String packageName,
+            Predicate<String> filter,
+            ClassLoader classLoader,
+            ClassPathScanConfig config
+    ) throws IOException {
+        return ClassPath.findTopLevelClassesRecursive(classLoader, packageName, config)
                 .stream()
-                .map(ClassPath.ClassInfo::getName)
                 .filter(filter)
                 .toList();
     }
@@ -0,0 +1,38 @@
+package com.coditory.quark.context;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Checks if classes are available in the class loader.
+ * Classes are loaded without initialization, so static initializers are not run.
+ * Results are cached, so each class name is checked once per instance.
+ */
+final class ClassPresence {
+    private final ClassLoader classLoader;
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+    private final Function<String, Boolean> loader = this::load;
+
+    ClassPresence(ClassLoader classLoader) {
+        this.classLoader = requireNonNull(classLoader);
+    }
+
+    boolean isPresent(String canonicalName) {
+        Boolean result = results.get(canonicalName);
+        return result != null
+                ? result
+                : results.computeIfAbsent(canonicalName, loader);
+    }
+
+    private boolean load(String canonicalName) {
+        try {
+            Class.forName(canonicalName, false, classLoader);
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
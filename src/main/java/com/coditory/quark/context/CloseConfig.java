@@ -0,0 +1,24 @@
+package com.coditory.quark.context;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of closing beans in reverse dependency order.
+ * Null timeout means no limit.
+ */
+record CloseConfig(Executor executor, Duration beanTimeout, Duration contextTimeout) {
+    static final CloseConfig SEQUENTIAL = new CloseConfig(Runnable::run, null, null);
+
+    CloseConfig withExecutor(Executor executor) {
+        return new CloseConfig(executor, beanTimeout, contextTimeout);
+    }
+
+    CloseConfig withBeanTimeout(Duration beanTimeout) {
+        return new CloseConfig(executor, beanTimeout, contextTimeout);
+    }
+
+    CloseConfig withContextTimeout(Duration contextTimeout) {
+        return new CloseConfig(executor, beanTimeout, contextTimeout);
+    }
+}
@@ -2,62 +2,116 @@ package com.coditory.quark.context;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import static com.coditory.quark.context.BeanDescriptor.descriptor;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toSet;
 
 public final class ConditionContext {
-    static ConditionContext from(Set<BeanHolder<?>> holders, Map<String, Object> properties) {
-        Set<BeanDescriptor<?>> descriptors = holders.stream()
-                .map(BeanHolder::getDescriptor)
-                .collect(toSet());
-        return new ConditionContext(descriptors, properties);
+    static ConditionContext from(
+            Set<BeanHolder<?>> holders,
+            Map<String, Object> properties,
+            ClassPresence classes,
+            @Nullable ConditionInputs inputs
+    ) {
+        PersistentHashSet<BeanDescriptor<?>> descriptors = PersistentHashSet.empty();
+        PersistentHashSet<String> names = PersistentHashSet.empty();
+        for (BeanHolder<?> holder : holders) {
+            descriptors = descriptors.with(holder.getDescriptor());
+            names = names.with(holder.getBeanName());
+        }
+        return new ConditionContext(descriptors, names, properties, classes, inputs, null);
     }
 
-    static ConditionContext from(Map<String, Object> properties) {
-        return new ConditionContext(Set.of(), properties);
+    static ConditionContext from(Map<String, Object> properties, ClassPresence classes, @Nullable ConditionInputs inputs) {
+        return new ConditionContext(PersistentHashSet.empty(), PersistentHashSet.empty(), properties, classes, inputs, null);
     }
 
-    private final Set<BeanDescriptor<?>> descriptors;
-    private final Set<String> names;
+    private final PersistentHashSet<BeanDescriptor<?>> descriptors;
+    private final PersistentHashSet<String> names;
     private final Map<String, Object> properties;
+    private final ClassPresence classes;
+    @Nullable
+    private final ConditionInputs inputs;
+    @Nullable
+    private final ConditionDependencies dependencies;
 
-    private ConditionContext(Set<BeanDescriptor<?>> descriptors, Map<String, Object> properties) {
+    private ConditionContext(
+            PersistentHashSet<BeanDescriptor<?>> descriptors,
+            PersistentHashSet<String> names,
+            Map<String, Object> properties,
+            ClassPresence classes,
+            @Nullable ConditionInputs inputs,
+            @Nullable ConditionDependencies dependencies
+    ) {
         this.descriptors = requireNonNull(descriptors);
+        this.names = requireNonNull(names);
         this.properties = requireNonNull(properties);
-        this.names = descriptors.stream()
-                .map(BeanDescriptor::name)
-                .collect(toSet());
+        this.classes = requireNonNull(classes);
+        this.inputs = inputs;
+        this.dependencies = dependencies;
     }
 
     public boolean hasBean(Class<?> type, String name) {
-        return descriptors.contains(descriptor(type, name));
+        return hasDescriptor(descriptor(type, name));
     }
 
     public boolean hasBean(String name) {
+        if (dependencies != null) {
+            dependencies.recordName(name);
+        }
         return names.contains(name);
     }
 
     public boolean hasBean(Class<?> type) {
-        return descriptors.contains(descriptor(type));
+        return hasDescriptor(descriptor(type));
+    }
+
+    boolean hasDescriptor(BeanDescriptor<?> descriptor) {
+        if (dependencies != null) {
+            dependencies.recordDescriptor(descriptor);
+        }
+        return descriptors.contains(descriptor);
     }
 
     @Nullable
     public Object getProperty(String name) {
+        recordProperty(name);
         return properties.get(name);
     }
 
     public Object getPropertyOrDefault(String name, Object defaultValue) {
+        recordProperty(name);
         return properties.getOrDefault(name, defaultValue);
     }
 
+    boolean hasClass(String canonicalName) {
+        boolean present = classes.isPresent(canonicalName);
+        if (inputs != null) {
+            inputs.recordClass(canonicalName, present);
+        }
+        return present;
+    }
+
+    private void recordProperty(String name) {
+        if (inputs != null) {
+            inputs.recordProperty(name);
+        }
+    }
+
+    /**
+     * @return the same context that records bean checks in the dependencies
+     */
+    ConditionContext recording(ConditionDependencies dependencies) {
+        return new ConditionContext(descriptors, names, properties, classes, inputs, dependencies);
+    }
+
     ConditionContext with(BeanHolder<?> holder) {
-        Set<BeanDescriptor<?>> descriptors = new HashSet<>(this.descriptors);
-        descriptors.addAll(holder.getBeanClassHierarchyDescriptors());
-        return new ConditionContext(descriptors, properties);
+        PersistentHashSet<BeanDescriptor<?>> descriptors = this.descriptors;
+        for (BeanDescriptor<?> descriptor : holder.getBeanClassHierarchyDescriptors()) {
+            descriptors = descriptors.with(descriptor);
+        }
+        return new ConditionContext(descriptors, names.with(holder.getBeanName()), properties, classes, inputs, null);
     }
 }
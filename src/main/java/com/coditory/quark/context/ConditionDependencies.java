@@ -0,0 +1,34 @@
+package com.coditory.quark.context;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records beans checked by a single condition evaluation.
+ * Condition result may change only when a bean matching one of the recorded checks is added to the context.
+ */
+final class ConditionDependencies {
+    private final Set<BeanDescriptor<?>> descriptors = new LinkedHashSet<>();
+    private final Set<String> names = new LinkedHashSet<>();
+
+    void recordDescriptor(BeanDescriptor<?> descriptor) {
+        descriptors.add(descriptor);
+    }
+
+    void recordName(String name) {
+        names.add(name);
+    }
+
+    Set<BeanDescriptor<?>> getDescriptors() {
+        return descriptors;
+    }
+
+    Set<String> getNames() {
+        return names;
+    }
+
+    boolean isAffectedBy(BeanHolder<?> holder) {
+        return names.contains(holder.getBeanName())
+                || holder.getBeanClassHierarchyDescriptors().stream().anyMatch(descriptors::contains);
+    }
+}
@@ -0,0 +1,30 @@
+package com.coditory.quark.context;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Records properties and classes checked by bean conditions during context resolution.
+ */
+final class ConditionInputs {
+    private final Set<String> properties = new TreeSet<>();
+    private final Map<String, Boolean> classes = new TreeMap<>();
+
+    void recordProperty(String name) {
+        properties.add(name);
+    }
+
+    void recordClass(String canonicalName, boolean present) {
+        classes.put(canonicalName, present);
+    }
+
+    Set<String> getProperties() {
+        return properties;
+    }
+
+    Map<String, Boolean> getClasses() {
+        return classes;
+    }
+}
@@ -0,0 +1,25 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+record ConditionalBeanCreator<T>(Predicate<ConditionContext> condition, BeanCreator<T> creator) implements BeanCreator<T> {
+    ConditionalBeanCreator {
+        requireNonNull(condition);
+        requireNonNull(creator);
+    }
+
+    @NotNull
+    @Override
+    public T create(@NotNull ResolutionContext context) {
+        return creator.create(context);
+    }
+
+    @Override
+    public boolean isActive(@NotNull ConditionContext context) {
+        return creator.isActive(context) && condition.test(context);
+    }
+}
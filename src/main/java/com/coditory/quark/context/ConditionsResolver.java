@@ -10,110 +10,86 @@ import com.coditory.quark.context.annotations.ConditionalOnProperty;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.function.Predicate;
 
+/**
+ * Compiles conditional annotations into predicates.
+ * Annotations are read once, so evaluating a compiled condition does not use reflection.
+ */
 final class ConditionsResolver {
 
     private ConditionsResolver() {
         throw new UnsupportedOperationException("Do not instantiate utility class");
     }
 
-    static boolean isActive(ConditionContext context, Method method) {
-        return isActive(context, method.getAnnotations());
+    static Predicate<ConditionContext> compile(Method method) {
+        return compile(method.getAnnotations());
     }
 
-    static boolean isActive(ConditionContext context, Class<?> type) {
-        return isActive(context, type.getAnnotations());
+    static Predicate<ConditionContext> compile(Class<?> type) {
+        return compile(type.getAnnotations());
     }
 
-    static boolean isActive(ConditionContext context, Annotation[] annotations) {
-        return Arrays.stream(annotations)
-                .allMatch(annotation -> isActive(context, annotation));
+    @SuppressWarnings("unchecked")
+    static Predicate<ConditionContext> compile(Annotation[] annotations) {
+        Predicate<ConditionContext>[] conditions = Arrays.stream(annotations)
+                .map(ConditionsResolver::compile)
+                .toArray(Predicate[]::new);
+        return BeanConditions.allOf(conditions);
     }
 
-    private static boolean isActive(ConditionContext context, Annotation annotation) {
+    private static Predicate<ConditionContext> compile(Annotation annotation) {
         if (annotation instanceof ConditionalOnClass) {
-            return isConditionActive((ConditionalOnClass) annotation);
+            return compile((ConditionalOnClass) annotation);
         }
         if (annotation instanceof ConditionalOnMissingClass) {
-            return isConditionActive((ConditionalOnMissingClass) annotation);
+            return compile((ConditionalOnMissingClass) annotation);
         }
         if (annotation instanceof ConditionalOnBean) {
-            return isConditionActive(context, (ConditionalOnBean) annotation);
+            return compile((ConditionalOnBean) annotation);
         }
         if (annotation instanceof ConditionalOnMissingBean) {
-            return isConditionActive(context, (ConditionalOnMissingBean) annotation);
+            return compile((ConditionalOnMissingBean) annotation);
         }
         if (annotation instanceof ConditionalOnProperty) {
-            return isConditionActive(context, (ConditionalOnProperty) annotation);
+            return compile((ConditionalOnProperty) annotation);
         }
         if (annotation instanceof ConditionalOnDisabledProperty) {
-            return isConditionActive(context, (ConditionalOnDisabledProperty) annotation);
+            return compile((ConditionalOnDisabledProperty) annotation);
         }
-        return true;
+        return BeanConditions.always();
     }
 
-    private static boolean isConditionActive(ConditionContext context, ConditionalOnProperty condition) {
+    private static Predicate<ConditionContext> compile(ConditionalOnProperty condition) {
         String[] names = condition.value().length == 0
                 ? condition.name()
                 : condition.value();
-        return Arrays.stream(names)
-                .allMatch(name -> {
-                    Object property = context.getProperty(name);
-                    return property == null
-                            ? condition.matchIfMissing()
-                            : property.toString().equals(condition.havingValue());
-                });
+        return BeanConditions.onProperty(names, condition.havingValue(), condition.matchIfMissing());
     }
 
-    private static boolean isConditionActive(ConditionContext context, ConditionalOnDisabledProperty condition) {
-        return Arrays.stream(condition.value())
-                .allMatch(name -> {
-                    Object property = context.getProperty(name);
-                    return property == null || property.toString().equals("false");
-                });
+    private static Predicate<ConditionContext> compile(ConditionalOnDisabledProperty condition) {
+        return BeanConditions.onDisabledProperty(condition.value());
     }
 
-    private static boolean isConditionActive(ConditionalOnClass condition) {
-        if (condition == null) {
-            return true;
-        }
-        return Arrays.stream(condition.value())
-                .allMatch(ConditionsResolver::hasClass);
+    private static Predicate<ConditionContext> compile(ConditionalOnClass condition) {
+        return BeanConditions.onClass(condition.value());
     }
 
-    private static boolean isConditionActive(ConditionalOnMissingClass condition) {
-        return Arrays.stream(condition.value())
-                .noneMatch(ConditionsResolver::hasClass);
+    private static Predicate<ConditionContext> compile(ConditionalOnMissingClass condition) {
+        return BeanConditions.onMissingClass(condition.value());
     }
 
-    private static boolean isConditionActive(ConditionContext context, ConditionalOnMissingBean condition) {
+    private static Predicate<ConditionContext> compile(ConditionalOnMissingBean condition) {
         Class<?>[] types = condition.value().length == 0
                 ? condition.type()
                 : condition.value();
-        boolean hasNoneBeansByType = Arrays.stream(types)
-                .noneMatch(context::hasBean);
-        boolean hasNoneBeansByName = Arrays.stream(condition.name())
-                .noneMatch(context::hasBean);
-        return hasNoneBeansByType && hasNoneBeansByName;
+        return BeanConditions.onMissingBean(types, condition.name());
     }
 
-    private static boolean isConditionActive(ConditionContext context, ConditionalOnBean condition) {
+    private static Predicate<ConditionContext> compile(ConditionalOnBean condition) {
         Class<?>[] types = condition.value().length == 0
                 ? condition.type()
                 : condition.value();
-        boolean hasBeansByType = Arrays.stream(types)
-                .allMatch(context::hasBean);
-        boolean hasBeansByName = Arrays.stream(condition.name())
-                .allMatch(context::hasBean);
-        return hasBeansByType && hasBeansByName;
-    }
-
-    private static boolean hasClass(String canonicalName) {
-        try {
-            Class.forName(canonicalName);
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return BeanConditions.onBean(types, condition.name());
     }
 }
@@ -6,6 +6,7 @@ import org.jetbrains.annotations.NotNull;
 import java.lang.reflect.Constructor;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static com.coditory.quark.context.DependencyResolver.resolveArguments;
 import static java.util.Objects.requireNonNull;
@@ -39,18 +40,23 @@ final class ConstructorBasedBeanCreator<T> implements BeanCreator<T> {
 
     private final Class<T> type;
     private final Constructor<T> constructor;
+    private final Predicate<ConditionContext> condition;
 
     ConstructorBasedBeanCreator(Class<T> type, Constructor<T> constructor) {
         this.type = requireNonNull(type);
         this.constructor = requireNonNull(constructor);
+        this.condition = ConditionsResolver.compile(type);
     }
 
     @NotNull
     @Override
+    @SuppressWarnings("unchecked")
     public T create(@NotNull ResolutionContext context) {
         try {
             Object[] args = resolveArguments(constructor, context);
-            return constructor.newInstance(args);
+            return (T) BeanClassMetadata.of(type)
+                    .getInvoker(constructor)
+                    .invoke(null, args);
         } catch (Exception e) {
             throw new ContextException("Could not create bean from constructor: " + constructor, e);
         }
@@ -58,6 +64,15 @@ final class ConstructorBasedBeanCreator<T> implements BeanCreator<T> {
 
     @Override
     public boolean isActive(@NotNull ConditionContext context) {
-        return ConditionsResolver.isActive(context, type);
+        return condition.test(context);
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "constructor: " + constructor;
     }
 }
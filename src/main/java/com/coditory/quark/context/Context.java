@@ -8,13 +8,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.coditory.quark.context.BeanDescriptor.descriptor;
@@ -40,32 +48,25 @@ public final class Context implements Closeable {
         return new ContextBuilder();
     }
 
-    static Context create(String name, Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, EventBus eventBus) {
+    static Context create(String name, Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, EventBus eventBus, CloseConfig closeConfig, ResolutionConfig resolutionConfig) {
         eventBus.emit(new ContextEvent.ContextPreCreateEvent());
         Timer totalTimer = Timer.start();
-        Map<BeanDescriptor<?>, List<BeanHolder<?>>> holders = ContextResolver.resolve(beanHolders, properties);
-        Context context = new Context(name, holders, properties, eventBus);
+        Map<BeanDescriptor<?>, List<BeanHolder<?>>> holders = ContextResolver.resolve(beanHolders, properties, resolutionConfig);
+        Context context = new Context(name, holders, properties, eventBus, closeConfig);
         context.init();
         log.info("Created context in {}", totalTimer.measureAndFormat());
         eventBus.emit(new ContextEvent.ContextPostCreateEvent());
         return context;
     }
 
-    static Context createEager(String name, Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, EventBus eventBus) {
+    static Context createEager(String name, Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, EventBus eventBus, CloseConfig closeConfig, ResolutionConfig resolutionConfig, Executor executor) {
         eventBus.emit(new ContextEvent.ContextPreCreateEvent());
         Timer totalTimer = Timer.start();
-        Map<BeanDescriptor<?>, List<BeanHolder<?>>> holders = ContextResolver.resolve(beanHolders, properties);
-        Context context = new Context(name, holders, properties, eventBus);
-        context.init();
+        Map<BeanDescriptor<?>, List<BeanHolder<?>>> holders = ContextResolver.resolve(beanHolders, properties, resolutionConfig);
+        Context context = new Context(name, holders, properties, eventBus, closeConfig);
         try {
-            holders.forEach((descriptor, creator) -> {
-                if (descriptor.name() != null) {
-                    context.get(descriptor.type(), descriptor.name());
-                } else if (descriptor.type() != Object.class) {
-                    // Object is too generic, can be skipped for more readable exceptions
-                    context.getAll(descriptor.type());
-                }
-            });
+            context.init();
+            context.createBeans(executor);
         } catch (Throwable exception) {
             try {
                 context.close();
@@ -80,21 +81,34 @@ public final class Context implements Closeable {
     }
 
     private static final Logger log = LoggerFactory.getLogger(Context.class);
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
     private final String name;
     private final Map<Class<?>, List<BeanHolder<?>>> beanHoldersByType;
+    // pooled beans are borrowed from their pools, so they are not returned by getAll
+    private final Map<Class<?>, List<BeanHolder<?>>> listedBeanHoldersByType;
     private final Map<BeanDescriptor<?>, List<BeanHolder<?>>> beanHolders;
+    private final Map<BeanDescriptor<?>, BeanResolution> resolutions;
     private final Set<BeanHolder<?>> holders;
     private final Set<String> beanNames;
+    private final DescriptorTable descriptors;
+    // bean slots used by bean references
+    private final Map<BeanHolder<?>, Integer> slotIndexes;
+    private final Object[] slots;
+    private final ResolutionContext rootResolutionContext = new ResolutionContext(this, emptyResolutionPath());
+    // each thread post initializes only the beans it created
+    private final ThreadLocal<PendingPostInitialization> pendingPostInitialization = ThreadLocal.withInitial(PendingPostInitialization::new);
     private final EventBus eventBus;
-    private boolean closed = false;
+    private final CloseConfig closeConfig;
+    private volatile boolean closed = false;
 
-    private Context(String name, Map<BeanDescriptor<?>, List<BeanHolder<?>>> beanHolders, Map<String, Object> properties, EventBus eventBus) {
+    private Context(String name, Map<BeanDescriptor<?>, List<BeanHolder<?>>> beanHolders, Map<String, Object> properties, EventBus eventBus, CloseConfig closeConfig) {
         requireNonNull(name);
         requireNonNull(beanHolders);
         requireNonNull(properties);
         requireNonNull(eventBus);
         this.name = name;
         this.eventBus = eventBus;
+        this.closeConfig = closeConfig;
         // register self
         BeanDescriptor<Context> descriptor = descriptor(Context.class);
         BeanConfig config = BeanConfig.DEFAULT.withEager(true);
@@ -104,12 +118,25 @@ public final class Context implements Closeable {
         // index beans
         this.beanHolders = beanHolders;
         this.beanHoldersByType = groupBeanCreatorsByType(beanHolders);
+        this.listedBeanHoldersByType = withoutPooledBeans(beanHoldersByType);
+        this.resolutions = resolveBeanHolders(beanHolders, beanHoldersByType);
         this.holders = beanHolders.values().stream()
                 .flatMap(Collection::stream)
                 .collect(toCollection(LinkedHashSet::new));
+        this.descriptors = DescriptorTable.of(beanHolders.keySet());
         this.beanNames = beanHolders.keySet().stream()
                 .map(BeanDescriptor::name)
                 .collect(toCollection(LinkedHashSet::new));
+        this.slotIndexes = indexSlots(holders);
+        this.slots = new Object[holders.size()];
+    }
+
+    private static Map<BeanHolder<?>, Integer> indexSlots(Set<BeanHolder<?>> holders) {
+        Map<BeanHolder<?>, Integer> indexes = new IdentityHashMap<>();
+        for (BeanHolder<?> holder : holders) {
+            indexes.put(holder, indexes.size());
+        }
+        return indexes;
     }
 
     @NotNull
@@ -118,10 +145,80 @@ public final class Context implements Closeable {
     }
 
     private void init() {
-        ResolutionContext context = new ResolutionContext(this, emptyResolutionPath());
         holders.stream()
                 .filter(BeanHolder::isEager)
-                .forEach(holder -> holder.get(context));
+                .forEach(holder -> holder.get(rootResolutionContext));
+        postInitBeans();
+    }
+
+    private void createBeans(Executor executor) {
+        // dependencies are created on demand by the task that needs them first,
+        // concurrent tasks wait for the dependency on the bean holder lock
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(holders.size());
+        for (BeanHolder<?> holder : holders) {
+            if (failure.get() != null) {
+                break;
+            }
+            if (holder.getScope() != BeanScope.SINGLETON) {
+                // prototype and pooled instances are created on lookup
+                continue;
+            }
+            try {
+                CompletableFuture<Void> task = CompletableFuture
+                        .runAsync(() -> {
+                            // skip outstanding work after first failure
+                            if (failure.get() == null) {
+                                createBean(holder);
+                            }
+                        }, executor)
+                        .whenComplete((result, exception) -> {
+                            if (exception != null) {
+                                failure.compareAndSet(null, unwrapCompletionException(exception));
+                            }
+                        });
+                tasks.add(task);
+            } catch (RejectedExecutionException e) {
+                failure.compareAndSet(null, new ContextException("Could not schedule bean creation: " + holder.getDescriptor().toShortString(), e));
+            }
+        }
+        // wait for all started tasks, so the context is not closed while beans are still being created
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .join();
+        Throwable exception = failure.get();
+        if (exception instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (exception instanceof Error error) {
+            throw error;
+        }
+        if (exception != null) {
+            throw new ContextException("Could not create context", exception);
+        }
+        postInitBeans();
+    }
+
+    private void createBean(BeanHolder<?> holder) {
+        BeanDescriptor<?> descriptor = holder.getDescriptor();
+        try {
+            createBean(holder, rootResolutionContext);
+        } catch (Exception e) {
+            Throwable cause = simplifyException(e, emptyResolutionPath());
+            // same messages as get(type, name) and getAll(type) used by sequential eager creation
+            String message = descriptor.hasName()
+                    ? "Could not create bean: "
+                    : "Could not create beans: ";
+            throw new ContextException(message + descriptor.toShortString(), cause);
+        }
+        postInitBeans();
+        awaitPostInitialization(holder);
+    }
+
+    private static Throwable unwrapCompletionException(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause()
+                : exception;
     }
 
     private Map<Class<?>, List<BeanHolder<?>>> groupBeanCreatorsByType(Map<BeanDescriptor<?>, List<BeanHolder<?>>> beanCreators) {
@@ -135,87 +232,209 @@ public final class Context implements Closeable {
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> unmodifiableList(e.getValue())));
     }
 
+    private static Map<Class<?>, List<BeanHolder<?>>> withoutPooledBeans(Map<Class<?>, List<BeanHolder<?>>> beanHoldersByType) {
+        Map<Class<?>, List<BeanHolder<?>>> result = new HashMap<>();
+        beanHoldersByType.forEach((type, holders) -> {
+            List<BeanHolder<?>> listed = holders.stream()
+                    .filter(holder -> holder.getScope() != BeanScope.POOLED)
+                    .toList();
+            if (!listed.isEmpty()) {
+                result.put(type, listed);
+            }
+        });
+        return result;
+    }
+
+    private Map<BeanDescriptor<?>, BeanResolution> resolveBeanHolders(
+            Map<BeanDescriptor<?>, List<BeanHolder<?>>> beanHolders,
+            Map<Class<?>, List<BeanHolder<?>>> beanHoldersByType
+    ) {
+        Map<BeanDescriptor<?>, BeanResolution> resolutions = new HashMap<>();
+        // unnamed descriptors are resolved by type, named ones by exact descriptor
+        beanHoldersByType.forEach((type, holders) -> resolutions.put(descriptor(type), BeanResolution.resolve(holders)));
+        beanHolders.forEach((descriptor, holders) -> {
+            if (descriptor.hasName()) {
+                resolutions.put(descriptor, BeanResolution.resolve(holders));
+            }
+        });
+        return Map.copyOf(resolutions);
+    }
+
+    <T> BeanDescriptor<T> findDescriptor(Class<T> type, String name) {
+        return descriptors.get(type, name);
+    }
+
     @NotNull
     public <T> T get(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return get(descriptor(type), emptyResolutionPath());
+        return get(descriptor(type), rootResolutionContext);
     }
 
     @Nullable
     public <T> T getOrNull(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return getOrNull(descriptor(type), emptyResolutionPath());
+        return getOrNull(descriptor(type), rootResolutionContext);
     }
 
     @NotNull
     public <T> T get(@NotNull Class<T> type, @NotNull String name) {
         expectNonNull(type, "type");
         expectNonNull(name, "name");
-        return get(descriptor(type, name), emptyResolutionPath());
+        return get(descriptors.get(type, name), rootResolutionContext);
     }
 
     @NotNull
     public <T> T get(@NotNull BeanDescriptor<T> descriptor) {
         expectNonNull(descriptor, "descriptor");
-        return get(descriptor, emptyResolutionPath());
+        return get(descriptor, rootResolutionContext);
     }
 
     @Nullable
     public <T> T getOrNull(@NotNull Class<T> type, @NotNull String name) {
         expectNonNull(type, "type");
         expectNonNull(name, "name");
-        return getOrNull(descriptor(type, name), emptyResolutionPath());
+        return getOrNull(descriptors.get(type, name), rootResolutionContext);
     }
 
     @Nullable
     public <T> T getOrNull(@NotNull BeanDescriptor<T> descriptor) {
         expectNonNull(descriptor, "descriptor");
-        return getOrNull(descriptor, emptyResolutionPath());
+        return getOrNull(descriptor, rootResolutionContext);
+    }
+
+    @NotNull
+    public <T> BeanRef<T> ref(@NotNull Class<T> type) {
+        expectNonNull(type, "type");
+        return ref(descriptor(type));
+    }
+
+    @NotNull
+    public <T> BeanRef<T> ref(@NotNull Class<T> type, @NotNull String name) {
+        expectNonNull(type, "type");
+        expectNonNull(name, "name");
+        return ref(descriptors.get(type, name));
+    }
+
+    @NotNull
+    public <T> BeanRef<T> ref(@NotNull BeanDescriptor<T> descriptor) {
+        expectNonNull(descriptor, "descriptor");
+        BeanResolution resolution = resolutions.getOrDefault(descriptor, BeanResolution.MISSING);
+        if (resolution.isMissing()) {
+            throw new ContextException("Could not find bean: " + descriptor.toShortString());
+        }
+        if (resolution.isAmbiguous()) {
+            throw new ContextException("Expected single bean: " + descriptor.toShortString()
+                    + ". Found " + resolution.candidates() + " beans.");
+        }
+        BeanHolder<?> holder = resolution.holder();
+        return new BeanRef<>(this, descriptor, holder, slotIndexes.get(holder));
+    }
+
+    @NotNull
+    public <T> BeanPool<T> getPool(@NotNull Class<T> type) {
+        expectNonNull(type, "type");
+        return getPool(descriptor(type), rootResolutionContext);
+    }
+
+    @NotNull
+    public <T> BeanPool<T> getPool(@NotNull Class<T> type, @NotNull String name) {
+        expectNonNull(type, "type");
+        expectNonNull(name, "name");
+        return getPool(descriptors.get(type, name), rootResolutionContext);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> BeanPool<T> getPool(BeanDescriptor<T> descriptor, ResolutionContext context) {
+        if (closed) {
+            throw new ContextException("Context already closed");
+        }
+        BeanResolution resolution = resolutions.getOrDefault(descriptor, BeanResolution.MISSING);
+        if (resolution.isMissing()) {
+            throw new ContextException("Could not find bean: " + descriptor.toShortString());
+        }
+        if (resolution.isAmbiguous()) {
+            throw new ContextException("Expected single bean: " + descriptor.toShortString()
+                    + ". Found " + resolution.candidates() + " beans.");
+        }
+        return (BeanPool<T>) resolution.holder().getPool(context);
+    }
+
+    Object getFromSlot(int slot) {
+        return SLOTS.getAcquire(slots, slot);
+    }
+
+    <T> T getAndStoreInSlot(BeanDescriptor<T> descriptor, BeanHolder<?> holder, int slot) {
+        T bean = get(descriptor, rootResolutionContext);
+        // only fully post initialized singletons are stored, so the fast path never returns a bean before @PostInit
+        if (holder.getScope() == BeanScope.SINGLETON && holder.isPostInitialized() && !closed) {
+            // volatile store followed by re-check pairs with close(), so a slot is never left set after close
+            SLOTS.setVolatile(slots, slot, bean);
+            if (closed) {
+                SLOTS.setVolatile(slots, slot, null);
+            }
+        }
+        return bean;
     }
 
-    <T> T get(BeanDescriptor<T> descriptor, ResolutionPath path) {
-        T bean = getOrNull(descriptor, path);
+    <T> T get(BeanDescriptor<T> descriptor, ResolutionContext context) {
+        T bean = getOrNull(descriptor, context);
         if (bean == null) {
             throw new ContextException("Could not find bean: " + descriptor.toShortString());
         }
         return bean;
     }
 
-    <T> T getOrNull(BeanDescriptor<T> descriptor, ResolutionPath path) {
-        List<BeanHolder<?>> holders = descriptor.hasName()
-                ? beanHolders.get(descriptor)
-                : beanHoldersByType.get(descriptor.type());
-        if (holders == null || holders.isEmpty()) {
+    <T> T getOrNull(BeanDescriptor<T> descriptor, ResolutionContext context) {
+        BeanResolution resolution = resolutions.getOrDefault(descriptor, BeanResolution.MISSING);
+        if (resolution.isMissing()) {
             return null;
         }
-        List<BeanHolder<?>> namedHolders = holders.stream()
-                .filter(holder -> holder.getDescriptor().hasName())
-                .toList();
-        List<BeanHolder<?>> unnamedHolders = holders.stream()
-                .filter(holder -> !holder.getDescriptor().hasName())
-                .toList();
-        if (holders.size() > 1 && unnamedHolders.size() != 1) {
+        if (resolution.isAmbiguous()) {
             throw new ContextException("Expected single bean: " + descriptor.toShortString()
-                    + ". Found " + holders.size() + " beans.");
+                    + ". Found " + resolution.candidates() + " beans.");
         }
-        BeanHolder<?> holder = unnamedHolders.size() == 1
-                ? unnamedHolders.getFirst()
-                : namedHolders.getFirst();
+        BeanHolder<?> holder = resolution.holder();
+        ResolutionPath path = context.getResolutionPath();
         T bean;
         try {
-            bean = createBean(holder, descriptor, path);
+            bean = createBean(holder, context);
         } catch (Exception e) {
             Throwable cause = simplifyException(e, path);
             throw new ContextException("Could not create bean: " + descriptor.toShortString(), cause);
         }
-        postInitBeans();
+        PendingPostInitialization pending = pendingPostInitialization.get();
+        if (pending.isTopLevel()) {
+            postInitBeans(pending);
+            awaitPostInitialization(holder);
+        }
         return bean;
     }
 
-    private void postInitBeans() {
-        holders.stream()
-                .filter(BeanHolder::isInitialized)
-                .forEach(h -> h.postInitialize(this));
+    PendingPostInitialization getPendingPostInitialization() {
+        return pendingPostInitialization.get();
+    }
+
+    void schedulePostInitialization(BeanHolder<?> holder) {
+        pendingPostInitialization.get().add(holder);
+    }
+
+    void postInitBeans() {
+        postInitBeans(pendingPostInitialization.get());
+    }
+
+    private void postInitBeans(PendingPostInitialization pending) {
+        // returns no beans while the thread holds bean holder locks
+        BeanHolder<?> holder;
+        while ((holder = pending.poll()) != null) {
+            holder.postInitialize(this);
+        }
+    }
+
+    private void awaitPostInitialization(BeanHolder<?> holder) {
+        // bean could be created by another thread that is still post initializing it
+        if (holder.isInitialized()) {
+            holder.postInitialize(this);
+        }
     }
 
     public boolean contains(@NotNull Class<?> type) {
@@ -231,17 +450,17 @@ public final class Context implements Closeable {
     public boolean contains(@NotNull Class<?> type, @NotNull String name) {
         expectNonNull(type, "type");
         expectNonNull(name, "name");
-        return beanHolders.containsKey(descriptor(type, name));
+        return beanHolders.containsKey(descriptors.get(type, name));
     }
 
     @NotNull
     public <T> List<T> getAll(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return getAll(type, emptyResolutionPath());
+        return getAll(type, rootResolutionContext);
     }
 
-    <T> List<T> getAll(Class<T> type, ResolutionPath path) {
-        List<T> beans = getAllOrEmpty(type, path);
+    <T> List<T> getAll(Class<T> type, ResolutionContext context) {
+        List<T> beans = getAllOrEmpty(type, context);
         if (beans.isEmpty()) {
             throw new ContextException("Beans not found for type: " + type.getSimpleName());
         }
@@ -251,55 +470,70 @@ public final class Context implements Closeable {
     @NotNull
     public <T> List<T> getAllOrEmpty(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return getAllOrEmpty(type, emptyResolutionPath());
+        return getAllOrEmpty(type, rootResolutionContext);
     }
 
-    <T> List<T> getAllOrEmpty(Class<T> type, ResolutionPath path) {
+    <T> List<T> getAllOrEmpty(Class<T> type, ResolutionContext context) {
         BeanDescriptor<T> descriptor = descriptor(type);
-        List<BeanHolder<?>> creators = beanHoldersByType.get(type);
+        List<BeanHolder<?>> creators = listedBeanHoldersByType.get(type);
         if (creators == null || creators.isEmpty()) {
             return List.of();
         }
+        ResolutionPath path = context.getResolutionPath();
         List<T> beans;
         try {
             beans = creators.stream()
-                    .map(creator -> createBean(creator, descriptor, path))
+                    .map(creator -> this.<T>createBean(creator, context))
                     .collect(toList());
         } catch (Exception e) {
             Throwable cause = simplifyException(e, path);
             throw new ContextException("Could not create beans: " + descriptor.toShortString(), cause);
         }
-        postInitBeans();
+        PendingPostInitialization pending = pendingPostInitialization.get();
+        if (pending.isTopLevel()) {
+            postInitBeans(pending);
+            creators.forEach(this::awaitPostInitialization);
+        }
         return beans;
     }
 
     @SuppressWarnings("unchecked")
-    private <T> T createBean(BeanHolder<?> holder, BeanDescriptor<T> descriptor, ResolutionPath path) {
+    private <T> T createBean(BeanHolder<?> holder, ResolutionContext context) {
         if (closed) {
             throw new ContextException("Context already closed");
         }
-        ResolutionContext resolutionContext = new ResolutionContext(this, path);
-        Object bean = holder.get(resolutionContext);
+        Object bean = holder.get(context);
         return (T) bean;
     }
 
     @Override
     public void close() {
         eventBus.emit(new ContextEvent.ContextPreCloseEvent());
-        ResolutionContext emptyResolutionContext = new ResolutionContext(this, emptyResolutionPath());
+        if (closeConfig != null) {
+            DependencyOrderCloser.close(holders, rootResolutionContext, closeConfig);
+        } else {
+            closeInRegistrationOrder();
+        }
+        closed = true;
+        // clear bean references, so they fail like other lookups on a closed context
+        for (int i = 0; i < slots.length; ++i) {
+            SLOTS.setVolatile(slots, i, null);
+        }
+        eventBus.emit(new ContextEvent.ContextPostCloseEvent());
+    }
+
+    private void closeInRegistrationOrder() {
         Set<BeanHolder<?>> closedBeanHolders;
         long createdBeans;
         do {
             closedBeanHolders = holders.stream()
                     .filter(BeanHolder::isCached)
                     .collect(toCollection(LinkedHashSet::new));
-            closedBeanHolders.forEach(b -> b.close(emptyResolutionContext));
+            closedBeanHolders.forEach(b -> b.close(rootResolutionContext));
             createdBeans = holders.stream()
                     .filter(BeanHolder::isCached)
                     .count();
         } while (closedBeanHolders.size() < createdBeans);
-        closed = true;
-        eventBus.emit(new ContextEvent.ContextPostCloseEvent());
     }
 
     private Throwable simplifyException(Throwable e, ResolutionPath path) {
@@ -9,8 +9,10 @@ import com.coditory.quark.eventbus.EventBusBuilder;
 import com.coditory.quark.eventbus.EventListener;
 import com.coditory.quark.eventbus.Subscription;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,7 +21,11 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -47,6 +53,9 @@ public final class ContextBuilder {
     private Duration beanCreationThreshold = Duration.ofMillis(50);
     private Duration beanTotalCreationThreshold = null;
     private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    private CloseConfig closeConfig = null;
+    private ClassPathScanConfig scanConfig = ClassPathScanConfig.DEFAULT;
+    private Path resolutionPlanFile = null;
     private final List<Iterable<Class<?>>> classpathScanners = new ArrayList<>();
 
     @NotNull
@@ -84,6 +93,9 @@ public final class ContextBuilder {
         return this;
     }
 
+    /**
+     * Sets class loader used to scan packages and to check classes of class conditions.
+     */
     @NotNull
     public ContextBuilder setClassLoader(@NotNull ClassLoader classLoader) {
         expectUninitialized();
@@ -129,6 +141,131 @@ public final class ContextBuilder {
         return this;
     }
 
+    /**
+     * Close beans in reverse dependency order. A bean is closed after all beans that depend on it.
+     */
+    @NotNull
+    public ContextBuilder closeInDependencyOrder() {
+        expectUninitialized();
+        if (closeConfig == null) {
+            closeConfig = CloseConfig.SEQUENTIAL;
+        }
+        return this;
+    }
+
+    /**
+     * Close beans in reverse dependency order. Beans with no remaining dependents are closed concurrently using the executor.
+     */
+    @NotNull
+    public ContextBuilder closeInDependencyOrder(@NotNull Executor executor) {
+        expectNonNull(executor, "executor");
+        closeInDependencyOrder();
+        closeConfig = closeConfig.withExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Close beans in reverse dependency order. Beans with no remaining dependents are closed concurrently using virtual threads.
+     */
+    @NotNull
+    public ContextBuilder closeInDependencyOrderConcurrently() {
+        return closeInDependencyOrder(runnable -> Thread.ofVirtual().start(runnable));
+    }
+
+    /**
+     * Stop waiting for a bean that does not close within the duration, measured from the start of its close, and report it.
+     * Dependencies of a timed out bean are left unclosed, as its close may still be using them.
+     * Enables closing beans in reverse dependency order. Beans are closed using virtual threads
+     * unless an executor is set with {@link #closeInDependencyOrder(Executor)}.
+     * An executor that runs tasks in the calling thread cannot be timed out, slow closes are only reported.
+     */
+    @NotNull
+    public ContextBuilder setBeanCloseTimeout(@NotNull Duration duration) {
+        expectNonNull(duration, "duration");
+        expect(!duration.isNegative(), "Expected non-negative duration");
+        closeInDependencyOrderWithTimeout();
+        closeConfig = closeConfig.withBeanTimeout(duration);
+        return this;
+    }
+
+    /**
+     * Stop closing beans when the whole context is not closed within the duration and report the unclosed ones.
+     * Enables closing beans in reverse dependency order. Beans are closed using virtual threads
+     * unless an executor is set with {@link #closeInDependencyOrder(Executor)}.
+     */
+    @NotNull
+    public ContextBuilder setContextCloseTimeout(@NotNull Duration duration) {
+        expectNonNull(duration, "duration");
+        expect(!duration.isNegative(), "Expected non-negative duration");
+        closeInDependencyOrderWithTimeout();
+        closeConfig = closeConfig.withContextTimeout(duration);
+        return this;
+    }
+
+    // a close running in the calling thread cannot be interrupted by a timeout
+    private void closeInDependencyOrderWithTimeout() {
+        if (closeConfig == null || closeConfig.executor() == CloseConfig.SEQUENTIAL.executor()) {
+            closeInDependencyOrderConcurrently();
+        }
+    }
+
+    /**
+     * Skips jars matching the glob pattern during package scan, e.g. {@code "slf4j-*.jar"}.
+     * Pattern is matched against the jar file name.
+     */
+    @NotNull
+    public ContextBuilder excludeJarFromScan(@NotNull String jarNamePattern) {
+        expectNonBlank(jarNamePattern, "jarNamePattern");
+        this.scanConfig = scanConfig.withExcludedJar(jarNamePattern);
+        return this;
+    }
+
+    /**
+     * Stores package scan results of jars in the file and reuses them on the next start
+     * if jar size and modification time did not change.
+     */
+    @NotNull
+    public ContextBuilder setScanCacheFile(@NotNull Path cacheFile) {
+        expectNonNull(cacheFile, "cacheFile");
+        this.scanConfig = scanConfig.withCacheFile(cacheFile);
+        return this;
+    }
+
+    /**
+     * Stores result of context resolution in the file and reuses it on the next start
+     * if bean definitions and inputs of bean conditions did not change.
+     * <p>
+     * Condition inputs are the properties, classes and beans read through {@link ConditionContext}.
+     * Plan is neither used nor stored when some condition is not created by {@link BeanConditions}
+     * or conditional annotations, as such condition may read state that is not tracked.
+     */
+    @NotNull
+    public ContextBuilder setResolutionPlanFile(@NotNull Path planFile) {
+        expectNonNull(planFile, "planFile");
+        this.resolutionPlanFile = planFile;
+        return this;
+    }
+
+    /**
+     * Scans classpath locations (jars and directories) concurrently using the executor.
+     * Scanned classes are registered in the classpath order.
+     */
+    @NotNull
+    public ContextBuilder scanConcurrently(@NotNull Executor executor) {
+        expectNonNull(executor, "executor");
+        this.scanConfig = scanConfig.withExecutor(executor);
+        return this;
+    }
+
+    /**
+     * Scans classpath locations (jars and directories) concurrently using virtual threads.
+     * Scanned classes are registered in the classpath order.
+     */
+    @NotNull
+    public ContextBuilder scanConcurrently() {
+        return scanConcurrently(runnable -> Thread.ofVirtual().start(runnable));
+    }
+
     @NotNull
     public ContextBuilder scanPackage(@NotNull Class<?> type) {
         expectNonNull(type, "type");
@@ -152,7 +289,7 @@ public final class ContextBuilder {
     public ContextBuilder scanPackage(@NotNull String packageName, @NotNull Predicate<String> canonicalNameFilter) {
         expectNonNull(packageName, "packageName");
         expectNonNull(canonicalNameFilter, "canonicalNameFilter");
-        classpathScanners.add(() -> ClassPathScanner.scanPackageAndSubPackages(packageName, canonicalNameFilter, classLoader));
+        classpathScanners.add(() -> ClassPathScanner.scanPackageAndSubPackages(packageName, canonicalNameFilter, classLoader, scanConfig));
         return this;
     }
 
@@ -165,13 +302,41 @@ public final class ContextBuilder {
                 throw new ContextException("Detected incompatible annotations on class: " + type.getCanonicalName()
                         + ". Class should have one annotation: @Configuration or @Bean.");
             }
-            addBeansFromConfiguration(configuration, type);
+            if (!addGeneratedBeans(type)) {
+                addBeansFromConfiguration(configuration, type);
+            }
         } else if (type.isAnnotationPresent(Bean.class)) {
-            addAnnotatedBeanClass(type);
+            if (!addGeneratedBeans(type)) {
+                addAnnotatedBeanClass(type);
+            }
         }
         return this;
     }
 
+    private boolean addGeneratedBeans(Class<?> type) {
+        Optional<GeneratedBeans> generated = GeneratedBeansLoader.find(type);
+        generated.ifPresent(this::addGeneratedBeans);
+        return generated.isPresent();
+    }
+
+    private void addGeneratedBeans(GeneratedBeans generated) {
+        // the first bean is created from the annotated class, the following ones from its @Bean methods
+        BeanHolder<?> configurationHolder = null;
+        for (GeneratedBean<?> bean : generated.getBeans()) {
+            BeanHolder<?> holder = addGeneratedBean(bean, configurationHolder);
+            if (configurationHolder == null) {
+                configurationHolder = holder;
+            }
+        }
+    }
+
+    private <T> BeanHolder<T> addGeneratedBean(GeneratedBean<T> bean, @Nullable BeanHolder<?> configurationHolder) {
+        BeanCreator<T> creator = new GeneratedBeanCreator<>(bean, configurationHolder);
+        BeanHolder<T> holder = holder(descriptor(bean.type(), bean.name()), creator, bean.config());
+        addBeanHolder(holder);
+        return holder;
+    }
+
     private <T> void addAnnotatedBeanClass(Class<T> type) {
         Bean annotation = type.getAnnotation(Bean.class);
         BeanCreator<T> creator = fromConstructor(type);
@@ -266,18 +431,7 @@ public final class ContextBuilder {
     }
 
     private <T> BeanCreator<T> wrapBeanCreator(Predicate<ConditionContext> condition, BeanCreator<T> beanCreator) {
-        return new BeanCreator<>() {
-            @Override
-            @NotNull
-            public T create(@NotNull ResolutionContext context) {
-                return beanCreator.create(context);
-            }
-
-            @Override
-            public boolean isActive(@NotNull ConditionContext context) {
-                return beanCreator.isActive(context) && condition.test(context);
-            }
-        };
+        return new ConditionalBeanCreator<>(condition, beanCreator);
     }
 
     @NotNull
@@ -301,12 +455,32 @@ public final class ContextBuilder {
 
     @NotNull
     public Context buildEager() {
-        return build(() -> Context.createEager(name, beanHolders, properties, eventBus));
+        return buildEager(Runnable::run);
+    }
+
+    /**
+     * Builds context and creates all beans concurrently using the executor.
+     * On failure outstanding creations are skipped and already created beans are closed.
+     */
+    @NotNull
+    public Context buildEager(@NotNull Executor executor) {
+        expectNonNull(executor, "executor");
+        return build(() -> Context.createEager(name, beanHolders, properties, eventBus, closeConfig, resolutionConfig(), executor));
+    }
+
+    /**
+     * Builds context and creates all beans concurrently using virtual threads.
+     */
+    @NotNull
+    public Context buildEagerConcurrently() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return buildEager(executor);
+        }
     }
 
     @NotNull
     public Context build() {
-        return build(() -> Context.create(name, beanHolders, properties, eventBus));
+        return build(() -> Context.create(name, beanHolders, properties, eventBus, closeConfig, resolutionConfig()));
     }
 
     private Context build(Supplier<Context> contextCreator) {
@@ -316,6 +490,13 @@ public final class ContextBuilder {
         return context;
     }
 
+    private ResolutionConfig resolutionConfig() {
+        ClassLoader conditionClassLoader = classLoader != null
+                ? classLoader
+                : ContextBuilder.class.getClassLoader();
+        return new ResolutionConfig(conditionClassLoader, resolutionPlanFile);
+    }
+
     private void initialize() {
         expectUninitialized();
         initializeName();
@@ -1,14 +1,18 @@
 package com.coditory.quark.context;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
@@ -20,15 +24,71 @@ final class ContextResolver {
         throw new UnsupportedOperationException("Do not instantiate utility class");
     }
 
-    static Map<BeanDescriptor<?>, List<BeanHolder<?>>> resolve(Set<BeanHolder<?>> beanHolders, Map<String, Object> properties) {
+    /**
+     * Resolves context using the plan stored in the configured file.
+     * When the plan does not match bean holders or condition inputs, context is resolved and a new plan is stored.
+     * Plan is neither used nor stored when some condition is not created by {@link BeanConditions}.
+     */
+    static Map<BeanDescriptor<?>, List<BeanHolder<?>>> resolve(Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, ResolutionConfig config) {
+        ClassPresence classes = new ClassPresence(config.classLoader());
+        Path planFile = config.planFile();
+        if (planFile != null && !ResolutionPlan.isSupported(beanHolders)) {
+            log.debug("Skipping resolution plan for conditions not created by BeanConditions: {}", planFile);
+            planFile = null;
+        }
+        if (planFile == null) {
+            Set<BeanHolder<?>> registered = resolveHolders(beanHolders, properties, classes, null);
+            return toDescriptorMap(registered);
+        }
+        List<BeanHolder<?>> holders = List.copyOf(beanHolders);
+        String fingerprint = ResolutionPlan.fingerprint(holders);
+        ResolutionPlan plan = ResolutionPlan.load(planFile);
+        if (plan != null && plan.matches(fingerprint, holders.size(), properties, classes)) {
+            Set<BeanHolder<?>> registered = new LinkedHashSet<>(plan.getRegisteredHolders(holders));
+            log.debug("Using resolution plan: {}", planFile);
+            logResolvedBeans(registered, skipped(beanHolders, registered));
+            return toDescriptorMap(registered);
+        }
+        ConditionInputs inputs = new ConditionInputs();
+        Set<BeanHolder<?>> registered = resolveHolders(beanHolders, properties, classes, inputs);
+        Map<BeanDescriptor<?>, List<BeanHolder<?>>> result = toDescriptorMap(registered);
+        ResolutionPlan.of(fingerprint, holders, registered, inputs, properties)
+                .save(planFile);
+        return result;
+    }
+
+    private static Set<BeanHolder<?>> resolveHolders(
+            Set<BeanHolder<?>> beanHolders,
+            Map<String, Object> properties,
+            ClassPresence classes,
+            @Nullable ConditionInputs inputs
+    ) {
         Set<BeanHolder<?>> holders = new LinkedHashSet<>(beanHolders);
-        ConditionContext contextWithAllBeans = ConditionContext.from(holders, properties);
-        ConditionContext contextWithNoBeans = ConditionContext.from(properties);
+        ConditionContext contextWithAllBeans = ConditionContext.from(holders, properties, classes, inputs);
+        ConditionContext contextWithNoBeans = ConditionContext.from(properties, classes, inputs);
         Set<BeanHolder<?>> stableBeanHolders = findStableBeans(holders, contextWithAllBeans, contextWithNoBeans);
         holders.removeAll(stableBeanHolders);
         Set<BeanHolder<?>> additiveBeanHolders = findAdditiveBeans(holders, contextWithAllBeans);
         holders.removeAll(additiveBeanHolders);
-        return resolve(stableBeanHolders, additiveBeanHolders, holders, properties);
+        Set<BeanHolder<?>> registered = resolve(stableBeanHolders, additiveBeanHolders, holders, properties, classes, inputs);
+        logResolvedBeans(registered, skipped(beanHolders, registered));
+        return registered;
+    }
+
+    private static Set<BeanHolder<?>> skipped(Set<BeanHolder<?>> holders, Set<BeanHolder<?>> registered) {
+        Set<BeanHolder<?>> skipped = new LinkedHashSet<>(holders);
+        skipped.removeAll(registered);
+        return skipped;
+    }
+
+    private static Map<BeanDescriptor<?>, List<BeanHolder<?>>> toDescriptorMap(Set<BeanHolder<?>> registered) {
+        Set<String> beanNames = new LinkedHashSet<>();
+        Map<BeanDescriptor<?>, List<BeanHolder<?>>> result = new LinkedHashMap<>();
+        for (BeanHolder<?> holder : registered) {
+            addBeanName(beanNames, holder);
+            addBeanHolderWithClassHierarchy(result, holder);
+        }
+        return result;
     }
 
     private static Set<BeanHolder<?>> findStableBeans(Set<BeanHolder<?>> holders, ConditionContext contextWithAllBeans, ConditionContext contextWithNoBeans) {
@@ -44,51 +104,26 @@ final class ContextResolver {
                 .collect(toCollection(LinkedHashSet::new));
     }
 
-    private static Map<BeanDescriptor<?>, List<BeanHolder<?>>> resolve(
+    private static Set<BeanHolder<?>> resolve(
             Set<BeanHolder<?>> stableBeanHolders,
             Set<BeanHolder<?>> additiveBeanHolders,
             Set<BeanHolder<?>> remainingBeanHolders,
-            Map<String, Object> properties
+            Map<String, Object> properties,
+            ClassPresence classes,
+            @Nullable ConditionInputs inputs
     ) {
-        Set<String> beanNames = new LinkedHashSet<>();
-        Set<BeanHolder<?>> registeredBeans = new LinkedHashSet<>();
-        Map<BeanDescriptor<?>, List<BeanHolder<?>>> result = new LinkedHashMap<>();
-        stableBeanHolders.forEach(holder -> {
-            addBeanName(beanNames, holder);
-            addBeanHolderWithClassHierarchy(result, holder);
-            registeredBeans.add(holder);
-        });
-        ConditionContext context = ConditionContext.from(registeredBeans, properties);
-        int registered;
+        ConditionContext context = ConditionContext.from(stableBeanHolders, properties, classes, inputs);
+        Registration registration = new Registration(context, additiveBeanHolders, remainingBeanHolders);
+        stableBeanHolders.forEach(registration::registerStable);
+        boolean registered;
         do {
-            do {
-                registered = registeredBeans.size();
-                for (BeanHolder<?> holder : additiveBeanHolders) {
-                    if (canBeAddedToContext(holder, registeredBeans, context)) {
-                        addBeanName(beanNames, holder);
-                        addBeanHolderWithClassHierarchy(result, holder);
-                        registeredBeans.add(holder);
-                        context = context.with(holder);
-                    }
-                }
-                additiveBeanHolders.removeAll(registeredBeans);
-            } while (registered < registeredBeans.size());
-            for (BeanHolder<?> holder : remainingBeanHolders) {
-                if (canBeAddedToContext(holder, registeredBeans, context)) {
-                    addBeanName(beanNames, holder);
-                    addBeanHolderWithClassHierarchy(result, holder);
-                    registeredBeans.add(holder);
-                    context = context.with(holder);
-                    break;
-                }
-            }
-            remainingBeanHolders.removeAll(registeredBeans);
-        } while (registered < registeredBeans.size());
-        logResolvedBeans(registeredBeans, additiveBeanHolders, remainingBeanHolders);
-        return result;
+            registration.registerAdditive();
+            registered = registration.registerFirstRemaining();
+        } while (registered);
+        return registration.getRegistered();
     }
 
-    private static void logResolvedBeans(Set<BeanHolder<?>> registered, Set<BeanHolder<?>> additiveBeanHolders, Set<BeanHolder<?>> remainingBeanHolders) {
+    private static void logResolvedBeans(Set<BeanHolder<?>> registered, Set<BeanHolder<?>> skipped) {
         if (log.isInfoEnabled()) {
             List<String> names = registered.stream()
                     .map(h -> h.getDescriptor().toShortString())
@@ -96,9 +131,6 @@ final class ContextResolver {
                     .collect(toList());
             log.info("Registered beans: {}", names);
         }
-        Set<BeanHolder<?>> skipped = new LinkedHashSet<>();
-        skipped.addAll(additiveBeanHolders);
-        skipped.addAll(remainingBeanHolders);
         if (log.isDebugEnabled() && !skipped.isEmpty()) {
             List<String> names = skipped.stream()
                     .map(h -> h.getDescriptor().toShortString())
@@ -108,15 +140,6 @@ final class ContextResolver {
         }
     }
 
-    private static boolean canBeAddedToContext(BeanHolder<?> holder, Set<BeanHolder<?>> registeredBeans, ConditionContext context) {
-        if (!holder.isActive(context)) {
-            return false;
-        }
-        ConditionContext contextWithBean = context.with(holder);
-        return registeredBeans.stream()
-                .allMatch(registered -> registered.isActive(contextWithBean));
-    }
-
     private static void addBeanName(Set<String> beanNames, BeanHolder<?> holder) {
         String name = holder.getBeanName();
         if (name == null) {
@@ -135,4 +158,214 @@ final class ContextResolver {
             registeredBeanCreators.add(holder);
         });
     }
+
+    /**
+     * Registers beans in the same order as repeated passes over all candidates would,
+     * but evaluates only the conditions that could change after a bean was added.
+     * <p>
+     * Each condition evaluation records checked beans. A registered bean is re-evaluated
+     * only when an added bean matches one of its checks. A rejected candidate is re-evaluated
+     * only when an added bean matches a check of the condition that rejected it.
+     */
+    private static final class Registration {
+        private final Set<String> beanNames = new LinkedHashSet<>();
+        private final Set<BeanHolder<?>> registered = new LinkedHashSet<>();
+        private final Set<BeanHolder<?>> inactiveRegistered = new LinkedHashSet<>();
+        private final DependencyIndex registeredDependents = new DependencyIndex();
+        private final DependencyIndex rejectedCandidates = new DependencyIndex();
+        private final List<BeanHolder<?>> additive;
+        private final List<BeanHolder<?>> remaining;
+        private final Map<BeanHolder<?>, Integer> additiveIndexes = new HashMap<>();
+        private final Map<BeanHolder<?>, Integer> remainingIndexes = new HashMap<>();
+        private final TreeSet<Integer> additiveToCheck = new TreeSet<>();
+        private final TreeSet<Integer> remainingToCheck = new TreeSet<>();
+        private ConditionContext context;
+
+        Registration(ConditionContext context, Set<BeanHolder<?>> additive, Set<BeanHolder<?>> remaining) {
+            this.context = context;
+            this.additive = List.copyOf(additive);
+            this.remaining = List.copyOf(remaining);
+            for (int i = 0; i < this.additive.size(); ++i) {
+                additiveIndexes.put(this.additive.get(i), i);
+                additiveToCheck.add(i);
+            }
+            for (int i = 0; i < this.remaining.size(); ++i) {
+                remainingIndexes.put(this.remaining.get(i), i);
+                remainingToCheck.add(i);
+            }
+        }
+
+        Set<BeanHolder<?>> getRegistered() {
+            return registered;
+        }
+
+        void registerStable(BeanHolder<?> holder) {
+            addBeanName(beanNames, holder);
+            registered.add(holder);
+            ConditionDependencies dependencies = new ConditionDependencies();
+            boolean active = holder.isActive(context.recording(dependencies));
+            updateRegistered(holder, active, dependencies);
+        }
+
+        /**
+         * Passes over additive candidates in order until a pass registers nothing.
+         */
+        void registerAdditive() {
+            boolean registeredAny;
+            do {
+                registeredAny = false;
+                Integer index = additiveToCheck.higher(-1);
+                while (index != null) {
+                    additiveToCheck.remove(index);
+                    if (tryRegister(additive.get(index))) {
+                        registeredAny = true;
+                    }
+                    index = additiveToCheck.higher(index);
+                }
+            } while (registeredAny);
+        }
+
+        /**
+         * Registers the first remaining candidate that can be added.
+         */
+        boolean registerFirstRemaining() {
+            Integer index = remainingToCheck.pollFirst();
+            while (index != null) {
+                if (tryRegister(remaining.get(index))) {
+                    return true;
+                }
+                index = remainingToCheck.pollFirst();
+            }
+            return false;
+        }
+
+        private boolean tryRegister(BeanHolder<?> holder) {
+            if (registered.contains(holder)) {
+                return false;
+            }
+            ConditionDependencies dependencies = new ConditionDependencies();
+            if (!holder.isActive(context.recording(dependencies))) {
+                rejectedCandidates.add(holder, dependencies);
+                return false;
+            }
+            for (BeanHolder<?> inactive : inactiveRegistered) {
+                ConditionDependencies inactiveDependencies = registeredDependents.getDependencies(inactive);
+                if (!inactiveDependencies.isAffectedBy(holder)) {
+                    rejectedCandidates.add(holder, inactiveDependencies);
+                    return false;
+                }
+            }
+            ConditionContext contextWithBean = context.with(holder);
+            Map<BeanHolder<?>, ConditionDependencies> reevaluated = new LinkedHashMap<>();
+            for (BeanHolder<?> affected : registeredDependents.findAffected(holder)) {
+                ConditionDependencies affectedDependencies = new ConditionDependencies();
+                if (!affected.isActive(contextWithBean.recording(affectedDependencies))) {
+                    rejectedCandidates.add(holder, affectedDependencies);
+                    return false;
+                }
+                reevaluated.put(affected, affectedDependencies);
+            }
+            addBeanName(beanNames, holder);
+            registered.add(holder);
+            context = contextWithBean;
+            reevaluated.forEach((affected, affectedDependencies) -> updateRegistered(affected, true, affectedDependencies));
+            if (dependencies.isAffectedBy(holder)) {
+                dependencies = new ConditionDependencies();
+                boolean active = holder.isActive(context.recording(dependencies));
+                updateRegistered(holder, active, dependencies);
+            } else {
+                updateRegistered(holder, true, dependencies);
+            }
+            for (BeanHolder<?> candidate : rejectedCandidates.removeAffected(holder)) {
+                scheduleCheck(candidate);
+            }
+            return true;
+        }
+
+        private void updateRegistered(BeanHolder<?> holder, boolean active, ConditionDependencies dependencies) {
+            registeredDependents.add(holder, dependencies);
+            if (active) {
+                inactiveRegistered.remove(holder);
+            } else {
+                inactiveRegistered.add(holder);
+            }
+        }
+
+        private void scheduleCheck(BeanHolder<?> candidate) {
+            if (registered.contains(candidate)) {
+                return;
+            }
+            Integer index = additiveIndexes.get(candidate);
+            if (index != null) {
+                additiveToCheck.add(index);
+                return;
+            }
+            index = remainingIndexes.get(candidate);
+            if (index != null) {
+                remainingToCheck.add(index);
+            }
+        }
+    }
+
+    /**
+     * Maps checked beans to holders with conditions that checked them.
+     */
+    private static final class DependencyIndex {
+        private final Map<BeanDescriptor<?>, Set<BeanHolder<?>>> byDescriptor = new HashMap<>();
+        private final Map<String, Set<BeanHolder<?>>> byName = new HashMap<>();
+        private final Map<BeanHolder<?>, ConditionDependencies> dependencies = new HashMap<>();
+
+        void add(BeanHolder<?> holder, ConditionDependencies holderDependencies) {
+            dependencies.put(holder, holderDependencies);
+            for (BeanDescriptor<?> descriptor : holderDependencies.getDescriptors()) {
+                byDescriptor.computeIfAbsent(descriptor, k -> new LinkedHashSet<>()).add(holder);
+            }
+            for (String name : holderDependencies.getNames()) {
+                byName.computeIfAbsent(name, k -> new LinkedHashSet<>()).add(holder);
+            }
+        }
+
+        ConditionDependencies getDependencies(BeanHolder<?> holder) {
+            return dependencies.get(holder);
+        }
+
+        /**
+         * @return holders with latest recorded dependencies affected by the added holder
+         */
+        Set<BeanHolder<?>> findAffected(BeanHolder<?> added) {
+            Set<BeanHolder<?>> result = new LinkedHashSet<>();
+            collectAffected(added, byDescriptor, byName, result, false);
+            return result;
+        }
+
+        Set<BeanHolder<?>> removeAffected(BeanHolder<?> added) {
+            Set<BeanHolder<?>> result = new LinkedHashSet<>();
+            collectAffected(added, byDescriptor, byName, result, true);
+            return result;
+        }
+
+        private void collectAffected(
+                BeanHolder<?> added,
+                Map<BeanDescriptor<?>, Set<BeanHolder<?>>> byDescriptor,
+                Map<String, Set<BeanHolder<?>>> byName,
+                Set<BeanHolder<?>> result,
+                boolean remove
+        ) {
+            for (BeanDescriptor<?> descriptor : added.getBeanClassHierarchyDescriptors()) {
+                Set<BeanHolder<?>> holders = remove ? byDescriptor.remove(descriptor) : byDescriptor.get(descriptor);
+                if (holders != null) {
+                    holders.stream()
+                            .filter(holder -> dependencies.get(holder).isAffectedBy(added))
+                            .forEach(result::add);
+                }
+            }
+            String name = added.getBeanName();
+            Set<BeanHolder<?>> holders = remove ? byName.remove(name) : byName.get(name);
+            if (holders != null) {
+                holders.stream()
+                        .filter(holder -> dependencies.get(holder).isAffectedBy(added))
+                        .forEach(result::add);
+            }
+        }
+    }
 }
@@ -0,0 +1,198 @@
+package com.coditory.quark.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Closes beans in waves, in reverse dependency order.
+ * A bean is closed only after all beans that depend on it are closed.
+ * Beans from the same wave are closed concurrently using the configured executor.
+ */
+final class DependencyOrderCloser {
+    private static final Logger log = LoggerFactory.getLogger(DependencyOrderCloser.class);
+    private final CloseConfig config;
+    private final ResolutionContext context;
+    // beans that failed or exceeded timeout are not retried
+    private final Set<BeanHolder<?>> skipped = new LinkedHashSet<>();
+    private final Set<BeanHolder<?>> timedOut = new LinkedHashSet<>();
+    // dependencies of timed out beans may still be used by their unfinished close tasks
+    private final Set<BeanHolder<?>> keptOpen = new LinkedHashSet<>();
+    private final List<Throwable> failures = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+
+    private DependencyOrderCloser(CloseConfig config, ResolutionContext context) {
+        this.config = requireNonNull(config);
+        this.context = requireNonNull(context);
+    }
+
+    static void close(Collection<BeanHolder<?>> holders, ResolutionContext context, CloseConfig config) {
+        new DependencyOrderCloser(config, context).close(holders);
+    }
+
+    private void close(Collection<BeanHolder<?>> holders) {
+        Set<BeanHolder<?>> remaining = findBeansToClose(holders);
+        // beans can be created during close by @Close methods, hence the loop
+        while (!remaining.isEmpty()) {
+            if (isPastDeadline()) {
+                log.warn("Context close timed out. Beans left unclosed: {}", toShortStrings(remaining));
+                break;
+            }
+            closeWave(findWave(remaining));
+            remaining = findBeansToClose(holders);
+        }
+        if (!timedOut.isEmpty()) {
+            log.warn("Beans exceeded close timeout: {}", toShortStrings(timedOut));
+        }
+        if (!keptOpen.isEmpty()) {
+            log.warn("Beans left unclosed as dependencies of timed out beans: {}", toShortStrings(keptOpen));
+        }
+        throwFailures();
+    }
+
+    private Set<BeanHolder<?>> findBeansToClose(Collection<BeanHolder<?>> holders) {
+        Set<BeanHolder<?>> result = new LinkedHashSet<>();
+        for (BeanHolder<?> holder : holders) {
+            if (holder.isCached() && !holder.isClosed() && !skipped.contains(holder)) {
+                result.add(holder);
+            }
+        }
+        return result;
+    }
+
+    private List<BeanHolder<?>> findWave(Set<BeanHolder<?>> remaining) {
+        Map<BeanHolder<?>, Integer> dependents = new HashMap<>();
+        for (BeanHolder<?> holder : remaining) {
+            for (BeanHolder<?> dependency : holder.getDependencies()) {
+                if (dependency != holder && remaining.contains(dependency)) {
+                    dependents.merge(dependency, 1, Integer::sum);
+                }
+            }
+        }
+        List<BeanHolder<?>> wave = remaining.stream()
+                .filter(holder -> !dependents.containsKey(holder))
+                .toList();
+        // cyclic dependencies (possible via @PostInit or @Close) - close what is left in registration order
+        return wave.isEmpty() ? List.copyOf(remaining) : wave;
+    }
+
+    private void closeWave(List<BeanHolder<?>> wave) {
+        Map<BeanHolder<?>, CloseTask> tasks = new HashMap<>();
+        for (BeanHolder<?> holder : wave) {
+            CompletableFuture<Long> started = new CompletableFuture<>();
+            try {
+                CompletableFuture<Void> closed = CompletableFuture.runAsync(() -> {
+                    started.complete(System.nanoTime());
+                    closeBean(holder);
+                }, config.executor());
+                tasks.put(holder, new CloseTask(started, closed));
+            } catch (RejectedExecutionException e) {
+                failures.add(new ContextException("Could not schedule closing bean: " + holder.getDescriptor().toShortString(), e));
+                skipped.add(holder);
+            }
+        }
+        for (BeanHolder<?> holder : wave) {
+            CloseTask task = tasks.get(holder);
+            if (task != null) {
+                awaitClose(holder, task);
+            }
+        }
+    }
+
+    private void closeBean(BeanHolder<?> holder) {
+        Timer timer = Timer.start();
+        holder.close(context);
+        Duration beanTimeout = config.beanTimeout();
+        if (beanTimeout != null && beanTimeout.minus(timer.measure()).isNegative()) {
+            // detects overruns for executors that run tasks in the calling thread
+            log.warn("Slow bean close. Bean: {}. Duration: {}", holder.getDescriptor().toShortString(), timer.measureAndFormat());
+        }
+    }
+
+    private void awaitClose(BeanHolder<?> holder, CloseTask task) {
+        try {
+            // bean timeout is measured from the start of its close, not from the start of the wave,
+            // so beans queued on a bounded executor are not reported for the time spent in the queue
+            long startNanos = task.started().get(remainingNanos(), TimeUnit.NANOSECONDS);
+            long timeoutNanos = config.beanTimeout() == null
+                    ? remainingNanos()
+                    : Math.min(remainingNanos(), config.beanTimeout().toNanos() - (System.nanoTime() - startNanos));
+            task.closed().get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            skipTimedOut(holder);
+        } catch (ExecutionException e) {
+            skipped.add(holder);
+            failures.add(e.getCause() == null ? e : e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            skipTimedOut(holder);
+        }
+    }
+
+    private void skipTimedOut(BeanHolder<?> holder) {
+        skipped.add(holder);
+        timedOut.add(holder);
+        List<BeanHolder<?>> dependencies = new ArrayList<>(holder.getDependencies());
+        while (!dependencies.isEmpty()) {
+            BeanHolder<?> dependency = dependencies.removeLast();
+            if (skipped.add(dependency)) {
+                if (dependency.isCached() && !dependency.isClosed()) {
+                    keptOpen.add(dependency);
+                }
+                dependencies.addAll(dependency.getDependencies());
+            }
+        }
+    }
+
+    private void throwFailures() {
+        if (failures.isEmpty()) {
+            return;
+        }
+        Throwable first = failures.getFirst();
+        failures.stream()
+                .skip(1)
+                .forEach(first::addSuppressed);
+        if (first instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (first instanceof Error error) {
+            throw error;
+        }
+        throw new ContextException("Could not close context", first);
+    }
+
+    private boolean isPastDeadline() {
+        return remainingNanos() <= 0;
+    }
+
+    private long remainingNanos() {
+        Duration contextTimeout = config.contextTimeout();
+        return contextTimeout == null
+                ? Long.MAX_VALUE
+                : contextTimeout.toNanos() - (System.nanoTime() - startNanos);
+    }
+
+    private record CloseTask(CompletableFuture<Long> started, CompletableFuture<Void> closed) {
+    }
+
+    private static List<String> toShortStrings(Collection<BeanHolder<?>> holders) {
+        return holders.stream()
+                .map(holder -> holder.getDescriptor().toShortString())
+                .toList();
+    }
+}
@@ -1,15 +1,20 @@
 package com.coditory.quark.context;
 
+import com.coditory.quark.context.InjectionPlan.InjectionPoint;
+import com.coditory.quark.context.InjectionPlan.Kind;
 import com.coditory.quark.context.annotations.Dependency;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 final class DependencyResolver {
     private static final Dependency DEFAULT_DEPENDENCY_ANNOTATION = new Dependency() {
@@ -39,32 +44,27 @@ final class DependencyResolver {
     }
 
     static Object[] resolveArguments(Constructor<?> constructor, ResolutionContext context) {
-        return resolveArguments(
-                context,
-                constructor.getGenericParameterTypes(),
-                constructor.getParameterTypes(),
-                constructor.getParameterAnnotations()
-        );
+        return BeanClassMetadata.of(constructor.getDeclaringClass())
+                .getInjectionPlan(constructor)
+                .resolveArguments(context);
     }
 
     static Object[] resolveArguments(Method method, ResolutionContext context) {
-        return resolveArguments(
-                context,
-                method.getGenericParameterTypes(),
-                method.getParameterTypes(),
-                method.getParameterAnnotations()
-        );
+        return BeanClassMetadata.of(method.getDeclaringClass())
+                .getInjectionPlan(method)
+                .resolveArguments(context);
     }
 
-    private static Object[] resolveArguments(ResolutionContext context, Type[] genericTypes, Class<?>[] parameterTypes, Annotation[][] annotations) {
-        Object[] args = new Object[parameterTypes.length];
+    static InjectionPlan compileInjectionPlan(Executable executable) {
+        Type[] genericTypes = executable.getGenericParameterTypes();
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        Annotation[][] annotations = executable.getParameterAnnotations();
+        List<InjectionPoint> points = new ArrayList<>(parameterTypes.length);
         for (int i = 0; i < parameterTypes.length; ++i) {
             Dependency dependency = getDependencyAnnotation(annotations[i]);
-            Class<?> parameterType = parameterTypes[i];
-            Type genericType = genericTypes[i];
-            args[i] = resolveDependency(context, dependency, parameterType, genericType);
+            points.add(compileInjectionPoint(dependency, parameterTypes[i], genericTypes[i]));
         }
-        return args;
+        return new InjectionPlan(points);
     }
 
     private static Dependency getDependencyAnnotation(Annotation[] annotations) {
@@ -75,7 +75,23 @@ final class DependencyResolver {
                 .orElse(DEFAULT_DEPENDENCY_ANNOTATION);
     }
 
-    private static Object resolveDependency(ResolutionContext context, Dependency dependency, Class<?> parameterType, Type genericType) {
+    private static InjectionPoint compileInjectionPoint(Dependency dependency, Class<?> parameterType, Type genericType) {
+        if (Lazy.class == parameterType) {
+            return InjectionPoint.deferred(Kind.LAZY, deferredInjectionPoint(dependency, genericType));
+        }
+        if (Provider.class == parameterType) {
+            return InjectionPoint.deferred(Kind.PROVIDER, deferredInjectionPoint(dependency, genericType));
+        }
+        if (Supplier.class == parameterType) {
+            return InjectionPoint.deferred(Kind.SUPPLIER, deferredInjectionPoint(dependency, genericType));
+        }
+        if (BeanPool.class == parameterType) {
+            InjectionPoint pooled = deferredInjectionPoint(dependency, genericType);
+            if (pooled.kind() != Kind.BEAN) {
+                throw new ContextException("Expected bean type in pool dependency: " + genericType.getTypeName());
+            }
+            return InjectionPoint.pool(pooled.type(), pooled.name(), pooled.optional());
+        }
         String name = dependency.name().isBlank()
                 ? dependency.value()
                 : dependency.name();
@@ -88,9 +104,7 @@ final class DependencyResolver {
             ParameterizedType parameterizedType = (ParameterizedType) genericType;
             Type type = parameterizedType.getActualTypeArguments()[0];
             if (type instanceof Class<?> listItemType) {
-                return optional
-                        ? context.getAllOrEmpty(listItemType)
-                        : context.getAll(listItemType);
+                return InjectionPoint.list(listItemType, optional);
             }
             if (type instanceof WildcardType wildcardItemType) {
                 if (wildcardItemType.getUpperBounds().length != 1) {
@@ -101,21 +115,32 @@ final class DependencyResolver {
                 }
                 Type upperBound = wildcardItemType.getUpperBounds()[0];
                 if (upperBound instanceof Class<?> lowerBoundClass) {
-                    return optional
-                            ? context.getAllOrEmpty(lowerBoundClass)
-                            : context.getAll(lowerBoundClass);
+                    return InjectionPoint.list(lowerBoundClass, optional);
                 }
                 throw new IllegalArgumentException("Unexpected lower bound type: " + upperBound);
             }
             throw new ContextException("Invalid List generic type in dependency: " + name);
         }
-        if (!name.isEmpty()) {
-            return optional
-                    ? context.getOrNull(parameterType, name)
-                    : context.get(parameterType, name);
+        return InjectionPoint.bean(parameterType, name.isEmpty() ? null : name, optional);
+    }
+
+    private static InjectionPoint deferredInjectionPoint(Dependency dependency, Type genericType) {
+        if (!(genericType instanceof ParameterizedType parameterizedType)) {
+            throw new ContextException("Expected generic type argument in deferred dependency: " + genericType.getTypeName());
+        }
+        Type type = parameterizedType.getActualTypeArguments()[0];
+        if (type instanceof WildcardType wildcardType) {
+            if (wildcardType.getUpperBounds().length != 1 || wildcardType.getLowerBounds().length != 0) {
+                throw new ContextException("Unexpected wildcard type in deferred dependency: " + genericType.getTypeName());
+            }
+            type = wildcardType.getUpperBounds()[0];
+        }
+        Class<?> rawType = type instanceof ParameterizedType parameterizedItemType
+                ? (Class<?>) parameterizedItemType.getRawType()
+                : type instanceof Class<?> itemClass ? itemClass : null;
+        if (rawType == null) {
+            throw new ContextException("Unexpected generic type in deferred dependency: " + genericType.getTypeName());
         }
-        return optional
-                ? context.getOrNull(parameterType)
-                : context.get(parameterType);
+        return compileInjectionPoint(dependency, rawType, type);
     }
 }
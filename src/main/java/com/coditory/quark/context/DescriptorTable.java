@@ -0,0 +1,44 @@
+package com.coditory.quark.context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.coditory.quark.context.BeanDescriptor.descriptor;
+
+/**
+ * Named bean descriptors registered in a context.
+ * Lookups return registered instances, so they do not allocate and map lookups match keys by identity.
+ * Unnamed descriptors are cached per class by {@link BeanDescriptor#descriptor(Class)}.
+ */
+final class DescriptorTable {
+    static DescriptorTable of(Iterable<BeanDescriptor<?>> descriptors) {
+        Map<Class<?>, Map<String, BeanDescriptor<?>>> named = new HashMap<>();
+        for (BeanDescriptor<?> descriptor : descriptors) {
+            if (descriptor.hasName()) {
+                named.computeIfAbsent(descriptor.type(), k -> new HashMap<>())
+                        .putIfAbsent(descriptor.name(), descriptor);
+            }
+        }
+        return new DescriptorTable(named);
+    }
+
+    private final Map<Class<?>, Map<String, BeanDescriptor<?>>> named;
+
+    private DescriptorTable(Map<Class<?>, Map<String, BeanDescriptor<?>>> named) {
+        this.named = named;
+    }
+
+    /**
+     * @return registered descriptor or a new one if there is no such descriptor in the context
+     */
+    @SuppressWarnings("unchecked")
+    <T> BeanDescriptor<T> get(Class<T> type, String name) {
+        Map<String, BeanDescriptor<?>> descriptors = named.get(type);
+        BeanDescriptor<?> descriptor = descriptors != null && name != null
+                ? descriptors.get(name)
+                : null;
+        return descriptor != null
+                ? (BeanDescriptor<T>) descriptor
+                : descriptor(type, name);
+    }
+}
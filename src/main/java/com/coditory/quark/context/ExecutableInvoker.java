@@ -0,0 +1,60 @@
+package com.coditory.quark.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Invokes a constructor or a method through a method handle adapted to a single shape.
+ * Exceptions thrown by the invoked code are rethrown as they are,
+ * without {@link java.lang.reflect.InvocationTargetException} wrapping.
+ */
+final class ExecutableInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private final MethodHandle handle;
+
+    private ExecutableInvoker(MethodHandle handle) {
+        this.handle = requireNonNull(handle);
+    }
+
+    static ExecutableInvoker of(Executable executable) {
+        requireNonNull(executable);
+        executable.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodHandle handle;
+            if (executable instanceof Constructor<?> constructor) {
+                handle = MethodHandles.dropArguments(spread(lookup.unreflectConstructor(constructor), 0), 0, Object.class);
+            } else {
+                Method method = (Method) executable;
+                handle = Modifier.isStatic(method.getModifiers())
+                        ? MethodHandles.dropArguments(spread(lookup.unreflect(method), 0), 0, Object.class)
+                        : spread(lookup.unreflect(method), 1);
+            }
+            return new ExecutableInvoker(handle.asType(INVOKER_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new ContextException("Could not access: " + executable, e);
+        }
+    }
+
+    private static MethodHandle spread(MethodHandle handle, int receivers) {
+        MethodHandle generic = handle.asType(handle.type().generic());
+        return generic.asSpreader(Object[].class, handle.type().parameterCount() - receivers);
+    }
+
+    Object invoke(Object target, Object[] args) throws Exception {
+        try {
+            return handle.invokeExact(target, args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ContextException("Could not invoke: " + handle, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+import static com.coditory.quark.context.Preconditions.expect;
+import static com.coditory.quark.context.Preconditions.expectNonNull;
+
+/**
+ * Bean definition generated at compile time.
+ * Beans created by {@code @Bean} methods use {@link MethodFactory},
+ * that receives the configuration from the first bean of the same {@link GeneratedBeans}.
+ *
+ * @param source describes the constructor or method used in error messages
+ */
+public record GeneratedBean<T>(
+        @NotNull Class<T> type,
+        @NotNull String name,
+        @NotNull BeanConfig config,
+        @NotNull String source,
+        @NotNull Predicate<ConditionContext> condition,
+        @Nullable Factory<T> factory,
+        @Nullable MethodFactory<?, T> methodFactory
+) {
+    public GeneratedBean {
+        expectNonNull(type, "type");
+        expectNonNull(name, "name");
+        expectNonNull(config, "config");
+        expectNonNull(source, "source");
+        expectNonNull(condition, "condition");
+        expect((factory == null) != (methodFactory == null), "Expected exactly one of factory and method factory");
+    }
+
+    public GeneratedBean(
+            @NotNull Class<T> type,
+            @NotNull String name,
+            @NotNull BeanConfig config,
+            @NotNull String source,
+            @NotNull Predicate<ConditionContext> condition,
+            @NotNull Factory<T> factory
+    ) {
+        this(type, name, config, source, condition, expectNonNull(factory, "factory"), null);
+    }
+
+    public GeneratedBean(
+            @NotNull Class<T> type,
+            @NotNull String name,
+            @NotNull BeanConfig config,
+            @NotNull String source,
+            @NotNull Predicate<ConditionContext> condition,
+            @NotNull MethodFactory<?, T> methodFactory
+    ) {
+        this(type, name, config, source, condition, null, expectNonNull(methodFactory, "methodFactory"));
+    }
+
+    boolean isMethodBean() {
+        return methodFactory != null;
+    }
+
+    @FunctionalInterface
+    public interface Factory<T> {
+        T create(@NotNull ResolutionContext context) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface MethodFactory<C, T> {
+        T create(@NotNull C configuration, @NotNull ResolutionContext context) throws Exception;
+    }
+}
@@ -0,0 +1,50 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+final class GeneratedBeanCreator<T> implements BeanCreator<T> {
+    private final GeneratedBean<T> bean;
+    @Nullable
+    private final BeanHolder<?> configurationHolder;
+
+    GeneratedBeanCreator(GeneratedBean<T> bean, @Nullable BeanHolder<?> configurationHolder) {
+        this.bean = requireNonNull(bean);
+        this.configurationHolder = configurationHolder;
+        if (bean.isMethodBean() && configurationHolder == null) {
+            throw new ContextException("Missing configuration for generated bean from " + bean.source());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    @Override
+    public T create(@NotNull ResolutionContext context) {
+        try {
+            if (bean.isMethodBean()) {
+                // same as reflective method beans: configuration is taken from its own holder, not looked up by type
+                Object configuration = configurationHolder.get(context);
+                return ((GeneratedBean.MethodFactory<Object, T>) bean.methodFactory()).create(configuration, context);
+            }
+            return bean.factory().create(context);
+        } catch (Exception e) {
+            throw new ContextException("Could not create bean from " + bean.source(), e);
+        }
+    }
+
+    @Override
+    public boolean isActive(@NotNull ConditionContext context) {
+        return bean.condition().test(context);
+    }
+
+    GeneratedBean<T> getBean() {
+        return bean;
+    }
+
+    @Override
+    public String toString() {
+        return "generated " + bean.source();
+    }
+}
@@ -0,0 +1,17 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Beans of a single {@code @Bean} or {@code @Configuration} class registered without runtime reflection.
+ * Implementations are generated by quark-context-processor
+ * as {@code <BeanClassBinaryName>_QuarkBeans} in the package of the bean class.
+ */
+public interface GeneratedBeans {
+    String CLASS_NAME_SUFFIX = "_QuarkBeans";
+
+    @NotNull
+    List<GeneratedBean<?>> getBeans();
+}
@@ -0,0 +1,41 @@
+package com.coditory.quark.context;
+
+import java.util.Optional;
+
+final class GeneratedBeansLoader {
+    private static final ClassValue<Optional<GeneratedBeans>> CACHE = new ClassValue<>() {
+        @Override
+        protected Optional<GeneratedBeans> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private GeneratedBeansLoader() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    static Optional<GeneratedBeans> find(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    private static GeneratedBeans load(Class<?> type) {
+        if (type.getClassLoader() == null) {
+            return null;
+        }
+        String generatedName = type.getName() + GeneratedBeans.CLASS_NAME_SUFFIX;
+        Class<?> generated;
+        try {
+            generated = Class.forName(generatedName, true, type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!GeneratedBeans.class.isAssignableFrom(generated)) {
+            throw new ContextException("Expected generated class to implement GeneratedBeans: " + generatedName);
+        }
+        try {
+            return (GeneratedBeans) generated.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ContextException("Could not instantiate generated class: " + generatedName, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.coditory.quark.context;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Precompiled description of the arguments of a constructor or a method.
+ * Annotations and generic types are inspected once, when the plan is compiled.
+ */
+final class InjectionPlan {
+    private static final Object[] NO_ARGS = new Object[0];
+    private final InjectionPoint[] points;
+
+    InjectionPlan(List<InjectionPoint> points) {
+        this.points = points.toArray(InjectionPoint[]::new);
+    }
+
+    Object[] resolveArguments(ResolutionContext context) {
+        if (points.length == 0) {
+            return NO_ARGS;
+        }
+        Object[] args = new Object[points.length];
+        for (int i = 0; i < points.length; ++i) {
+            args[i] = points[i].resolve(context);
+        }
+        return args;
+    }
+
+    enum Kind {
+        BEAN, LIST, POOL, LAZY, PROVIDER, SUPPLIER
+    }
+
+    record InjectionPoint(Kind kind, Class<?> type, String name, boolean optional, InjectionPoint deferred) {
+        InjectionPoint {
+            requireNonNull(kind);
+        }
+
+        static InjectionPoint bean(Class<?> type, String name, boolean optional) {
+            return new InjectionPoint(Kind.BEAN, requireNonNull(type), name, optional, null);
+        }
+
+        static InjectionPoint list(Class<?> itemType, boolean optional) {
+            return new InjectionPoint(Kind.LIST, requireNonNull(itemType), null, optional, null);
+        }
+
+        static InjectionPoint pool(Class<?> type, String name, boolean optional) {
+            return new InjectionPoint(Kind.POOL, requireNonNull(type), name, optional, null);
+        }
+
+        static InjectionPoint deferred(Kind kind, InjectionPoint deferred) {
+            return new InjectionPoint(kind, null, null, false, requireNonNull(deferred));
+        }
+
+        Object resolve(ResolutionContext context) {
+            return switch (kind) {
+                case BEAN -> resolveBean(context);
+                case LIST -> optional
+                        ? context.getAllOrEmpty(type)
+                        : context.getAll(type);
+                case POOL -> resolvePool(context);
+                // context captures resolution path of the dependent bean, so cycles are still detected.
+                // Lazy memoizes the first value, provider and supplier resolve again on every call (new prototype instance).
+                case LAZY -> new LazyDependency<>(() -> deferred.resolve(context));
+                case PROVIDER -> (Provider<Object>) () -> deferred.resolve(context);
+                case SUPPLIER -> (Supplier<Object>) () -> deferred.resolve(context);
+            };
+        }
+
+        private Object resolvePool(ResolutionContext context) {
+            if (name != null) {
+                return optional && !context.contains(type, name)
+                        ? null
+                        : context.getPool(type, name);
+            }
+            return optional && !context.contains(type)
+                    ? null
+                    : context.getPool(type);
+        }
+
+        private Object resolveBean(ResolutionContext context) {
+            if (name != null) {
+                return optional
+                        ? context.getOrNull(type, name)
+                        : context.get(type, name);
+            }
+            return optional
+                    ? context.getOrNull(type)
+                    : context.get(type);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.coditory.quark.context;
+
+import java.util.function.Supplier;
+
+/**
+ * Dependency resolved on first {@link #get()} call and memoized afterwards.
+ * Can be used as a constructor or lifecycle method parameter to defer creation of expensive beans.
+ */
+public interface Lazy<T> extends Supplier<T> {
+}
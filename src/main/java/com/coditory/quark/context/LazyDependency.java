@@ -0,0 +1,41 @@
+package com.coditory.quark.context;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+final class LazyDependency<T> implements Lazy<T> {
+    private final Supplier<T> supplier;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile boolean resolved = false;
+    private T value;
+
+    LazyDependency(Supplier<T> supplier) {
+        this.supplier = requireNonNull(supplier);
+    }
+
+    @Override
+    public T get() {
+        if (!resolved) {
+            // resolved once even for prototype dependencies, that create a new instance on every resolution
+            lock.lock();
+            try {
+                if (!resolved) {
+                    value = supplier.get();
+                    resolved = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return resolved
+                ? "Lazy{" + value + "}"
+                : "Lazy{unresolved}";
+    }
+}
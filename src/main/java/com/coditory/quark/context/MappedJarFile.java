@@ -0,0 +1,306 @@
+package com.coditory.quark.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of a memory-mapped jar file.
+ * Reads the zip central directory directly and compares entry names as bytes,
+ * so strings are created only for matching entries.
+ * Throws {@link ZipException} for archives that are not supported, e.g. encrypted entries,
+ * or have a corrupted end of central directory.
+ * Reading corrupted entries may throw {@link IndexOutOfBoundsException}.
+ */
+final class MappedJarFile {
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int CENTRAL_DIRECTORY_ENTRY_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int CENTRAL_DIRECTORY_ENTRY_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final long ZIP64_MAGIC_VALUE = 0xFFFFFFFFL;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int ENCRYPTED_FLAG = 1;
+    private static final byte[] CLASS_FILE_NAME_EXTENSION = ".class".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Maps the whole file. There is no API to unmap a buffer, so the mapping is released
+     * when the returned instance is garbage collected and, until then, the file stays locked on Windows.
+     * Callers should keep the instance only for a single scan of the file.
+     */
+    static MappedJarFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Jar file is too large to be mapped: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedJarFile(file, buffer);
+        }
+    }
+
+    interface EntryVisitor {
+        void visit(Entry entry) throws IOException;
+    }
+
+    record Entry(String name, int method, long compressedSize, long uncompressedSize, long localHeaderOffset) {
+    }
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int centralDirectoryOffset;
+    private final int centralDirectoryEnd;
+    private final long entriesCount;
+    private final long archiveOffset;
+
+    private MappedJarFile(File file, ByteBuffer buffer) throws ZipException {
+        this.file = file;
+        this.buffer = buffer;
+        int end = findEndOfCentralDirectory();
+        long entries = unsignedShort(end + 10);
+        long size = unsignedInt(end + 12);
+        long offset = unsignedInt(end + 16);
+        long directoryEnd = end;
+        if (entries == ZIP64_MAGIC_COUNT || size == ZIP64_MAGIC_VALUE || offset == ZIP64_MAGIC_VALUE) {
+            int locator = end - ZIP64_LOCATOR_SIZE;
+            if (locator >= 0 && buffer.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+                int zip64End = toPosition(buffer.getLong(locator + 8), ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+                if (buffer.getInt(zip64End) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    throw zipException("Invalid zip64 end of central directory");
+                }
+                entries = buffer.getLong(zip64End + 32);
+                size = buffer.getLong(zip64End + 40);
+                offset = buffer.getLong(zip64End + 48);
+                directoryEnd = zip64End;
+            }
+        }
+        // offsets are shifted when data is prepended to the archive, e.g. a launch script
+        this.archiveOffset = directoryEnd - size - offset;
+        this.centralDirectoryOffset = toPosition(archiveOffset + offset);
+        this.centralDirectoryEnd = toPosition(archiveOffset + offset + size);
+        this.entriesCount = entries;
+    }
+
+    /**
+     * Visits top-level class entries with names starting with the prefix.
+     */
+    void forEachTopLevelClass(String resourcePrefix, EntryVisitor visitor) throws IOException {
+        byte[] prefix = resourcePrefix.getBytes(StandardCharsets.UTF_8);
+        int position = centralDirectoryOffset;
+        for (long i = 0; i < entriesCount; ++i) {
+            int nameLength = entryNameLength(position);
+            int nameStart = position + CENTRAL_DIRECTORY_ENTRY_SIZE;
+            if (startsWith(nameStart, nameLength, prefix)
+                    && endsWith(nameStart, nameLength, CLASS_FILE_NAME_EXTENSION)
+                    && indexOf(nameStart + prefix.length, nameStart + nameLength, (byte) '$') < 0) {
+                visitor.visit(entry(position));
+            }
+            position = nextEntry(position);
+        }
+    }
+
+    /**
+     * @return entry content or null if there is no such entry
+     */
+    byte[] read(String name) throws IOException {
+        byte[] expected = name.getBytes(StandardCharsets.UTF_8);
+        int position = centralDirectoryOffset;
+        for (long i = 0; i < entriesCount; ++i) {
+            int nameLength = entryNameLength(position);
+            if (nameLength == expected.length && startsWith(position + CENTRAL_DIRECTORY_ENTRY_SIZE, nameLength, expected)) {
+                return read(entry(position));
+            }
+            position = nextEntry(position);
+        }
+        return null;
+    }
+
+    byte[] read(Entry entry) throws IOException {
+        int header = toPosition(archiveOffset + entry.localHeaderOffset());
+        if (buffer.getInt(header) != LOCAL_HEADER_SIGNATURE) {
+            throw zipException("Invalid local header of entry: " + entry.name());
+        }
+        int dataStart = header + LOCAL_HEADER_SIZE + unsignedShort(header + 26) + unsignedShort(header + 28);
+        int compressedSize = toLength(entry.compressedSize());
+        int uncompressedSize = toLength(entry.uncompressedSize());
+        ByteBuffer data = buffer.slice(dataStart, compressedSize);
+        if (entry.method() == STORED) {
+            byte[] result = new byte[compressedSize];
+            data.get(result);
+            return result;
+        }
+        if (entry.method() != DEFLATED) {
+            throw zipException("Unsupported compression method " + entry.method() + " of entry: " + entry.name());
+        }
+        return inflate(entry, data, uncompressedSize);
+    }
+
+    private byte[] inflate(Entry entry, ByteBuffer data, int uncompressedSize) throws ZipException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[uncompressedSize];
+            int length = 0;
+            while (length < uncompressedSize && !inflater.finished()) {
+                int inflated = inflater.inflate(result, length, uncompressedSize - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw zipException("Truncated entry: " + entry.name());
+                }
+                length += inflated;
+            }
+            if (length < uncompressedSize) {
+                throw zipException("Truncated entry: " + entry.name());
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw zipException("Invalid compressed data of entry: " + entry.name());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private Entry entry(int position) throws ZipException {
+        if ((unsignedShort(position + 8) & ENCRYPTED_FLAG) != 0) {
+            throw zipException("Encrypted entries are not supported");
+        }
+        int nameLength = unsignedShort(position + 28);
+        int extraLength = unsignedShort(position + 30);
+        int nameStart = position + CENTRAL_DIRECTORY_ENTRY_SIZE;
+        byte[] name = new byte[nameLength];
+        buffer.get(nameStart, name);
+        long compressedSize = unsignedInt(position + 20);
+        long uncompressedSize = unsignedInt(position + 24);
+        long localHeaderOffset = unsignedInt(position + 42);
+        if (compressedSize == ZIP64_MAGIC_VALUE || uncompressedSize == ZIP64_MAGIC_VALUE || localHeaderOffset == ZIP64_MAGIC_VALUE) {
+            int extra = nameStart + nameLength;
+            int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                int id = unsignedShort(extra);
+                int size = unsignedShort(extra + 2);
+                if (id == ZIP64_EXTRA_FIELD_ID) {
+                    int field = extra + 4;
+                    if (uncompressedSize == ZIP64_MAGIC_VALUE) {
+                        uncompressedSize = buffer.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC_VALUE) {
+                        compressedSize = buffer.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == ZIP64_MAGIC_VALUE) {
+                        localHeaderOffset = buffer.getLong(field);
+                    }
+                    break;
+                }
+                extra += 4 + size;
+            }
+        }
+        return new Entry(
+                new String(name, StandardCharsets.UTF_8),
+                unsignedShort(position + 10),
+                compressedSize,
+                uncompressedSize,
+                localHeaderOffset
+        );
+    }
+
+    private int entryNameLength(int position) throws ZipException {
+        if (position + CENTRAL_DIRECTORY_ENTRY_SIZE > centralDirectoryEnd
+                || buffer.getInt(position) != CENTRAL_DIRECTORY_ENTRY_SIGNATURE) {
+            throw zipException("Invalid central directory entry");
+        }
+        return unsignedShort(position + 28);
+    }
+
+    private int nextEntry(int position) {
+        return position + CENTRAL_DIRECTORY_ENTRY_SIZE
+                + unsignedShort(position + 28)
+                + unsignedShort(position + 30)
+                + unsignedShort(position + 32);
+    }
+
+    private int findEndOfCentralDirectory() throws ZipException {
+        int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT_SIZE);
+        for (int position = last; position >= first; --position) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+                    && position + END_OF_CENTRAL_DIRECTORY_SIZE + unsignedShort(position + 20) == buffer.limit()) {
+                return position;
+            }
+        }
+        throw zipException("Missing end of central directory");
+    }
+
+    private boolean startsWith(int start, int length, byte[] prefix) {
+        return length >= prefix.length && regionEquals(start, prefix);
+    }
+
+    private boolean endsWith(int start, int length, byte[] suffix) {
+        return length >= suffix.length && regionEquals(start + length - suffix.length, suffix);
+    }
+
+    private boolean regionEquals(int start, byte[] value) {
+        for (int i = 0; i < value.length; ++i) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(int start, int end, byte value) {
+        for (int i = start; i < end; ++i) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int unsignedShort(int position) {
+        return Short.toUnsignedInt(buffer.getShort(position));
+    }
+
+    private long unsignedInt(int position) {
+        return Integer.toUnsignedLong(buffer.getInt(position));
+    }
+
+    private int toPosition(long offset) throws ZipException {
+        return toPosition(offset, 0);
+    }
+
+    private int toPosition(long offset, int length) throws ZipException {
+        if (offset < 0 || offset > buffer.limit() - length) {
+            throw zipException("Invalid offset: " + offset);
+        }
+        return (int) offset;
+    }
+
+    private int toLength(long size) throws ZipException {
+        if (size < 0 || size > Integer.MAX_VALUE - 8) {
+            throw zipException("Invalid entry size: " + size);
+        }
+        return (int) size;
+    }
+
+    private ZipException zipException(String message) {
+        return new ZipException(message + " in " + file);
+    }
+}
@@ -4,6 +4,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.coditory.quark.context.DependencyResolver.resolveArguments;
@@ -19,10 +20,12 @@ final class MethodBasedBeanCreator<T> implements BeanCreator<T> {
 
     private final Method method;
     private final BeanHolder<?> holder;
+    private final Predicate<ConditionContext> condition;
 
     public MethodBasedBeanCreator(BeanHolder<?> holder, Method method) {
         this.holder = requireNonNull(holder);
         this.method = requireNonNull(method);
+        this.condition = ConditionsResolver.compile(method);
     }
 
     @SuppressWarnings("unchecked")
@@ -32,7 +35,9 @@ final class MethodBasedBeanCreator<T> implements BeanCreator<T> {
         try {
             Object object = holder.get(context);
             Object[] args = resolveArguments(method, context);
-            return (T) method.invoke(object, args);
+            return (T) BeanClassMetadata.of(method.getDeclaringClass())
+                    .getInvoker(method)
+                    .invoke(object, args);
         } catch (Exception e) {
             throw new ContextException("Could not create bean from method: " + simplifyMethodName(method), e);
         }
@@ -40,6 +45,15 @@ final class MethodBasedBeanCreator<T> implements BeanCreator<T> {
 
     @Override
     public boolean isActive(@NotNull ConditionContext context) {
-        return holder.isActive(context) && ConditionsResolver.isActive(context, method);
+        return holder.isActive(context) && condition.test(context);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public String toString() {
+        return "method: " + method;
     }
 }
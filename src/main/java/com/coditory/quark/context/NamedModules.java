@@ -0,0 +1,94 @@
+package com.coditory.quark.context;
+
+import com.coditory.quark.context.annotations.Bean;
+
+import java.io.File;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds named modules that may contain beans from a package.
+ * Modules are selected by their descriptors, so modules without the package are not opened.
+ */
+final class NamedModules {
+    private NamedModules() {
+        throw new UnsupportedOperationException("Do not instantiate utility class");
+    }
+
+    /**
+     * Returns modules from the layers sorted by name that:
+     * contain the package or its sub-package,
+     * read quark-context module (or are automatic),
+     * have classes visible from the class loader
+     * and are not already on the classpath.
+     */
+    static List<ModuleReference> findModulesWithPackage(
+            List<ModuleLayer> layers,
+            ClassLoader classLoader,
+            String packageName,
+            Collection<File> classPathLocations
+    ) {
+        String contextModuleName = Bean.class.getModule().getName();
+        Set<Path> classPath = new HashSet<>();
+        for (File location : classPathLocations) {
+            classPath.add(normalize(location.toPath()));
+        }
+        return layers.stream()
+                .flatMap(layer -> layer.configuration().modules().stream()
+                        .filter(module -> containsPackage(module.reference().descriptor(), packageName))
+                        .filter(module -> !module.name().equals(contextModuleName))
+                        .filter(module -> readsContextModule(module, contextModuleName))
+                        .filter(module -> isVisible(layer.findLoader(module.name()), classLoader))
+                        .map(ResolvedModule::reference)
+                        .filter(reference -> !isOnClassPath(reference, classPath)))
+                .sorted(Comparator.comparing(reference -> reference.descriptor().name()))
+                .toList();
+    }
+
+    private static boolean containsPackage(ModuleDescriptor descriptor, String packageName) {
+        if (packageName.isEmpty()) {
+            return !descriptor.packages().isEmpty();
+        }
+        String subPackagePrefix = packageName + ".";
+        return descriptor.packages().stream()
+                .anyMatch(name -> name.equals(packageName) || name.startsWith(subPackagePrefix));
+    }
+
+    private static boolean readsContextModule(ResolvedModule module, String contextModuleName) {
+        // bean annotations cannot be used in a named module that does not read quark-context
+        return module.reference().descriptor().isAutomatic()
+                || (contextModuleName != null && module.reads().stream()
+                .anyMatch(read -> read.name().equals(contextModuleName)));
+    }
+
+    private static boolean isVisible(ClassLoader moduleLoader, ClassLoader classLoader) {
+        if (moduleLoader == null) {
+            return true;
+        }
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader == moduleLoader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOnClassPath(ModuleReference reference, Set<Path> classPath) {
+        URI location = reference.location().orElse(null);
+        return location != null
+                && location.getScheme().equals("file")
+                && classPath.contains(normalize(Path.of(location)));
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,415 @@
+package com.coditory.quark.context;
+
+import com.coditory.quark.context.annotations.Bean;
+import com.coditory.quark.context.annotations.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ModuleReference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Finds top-level classes from a package and its sub-packages in classpath locations and named modules.
+ * Locations are scanned concurrently using the executor from the config.
+ * Results are merged in classpath order, followed by modules, so they do not depend on the executor.
+ * Class files are filtered by bean annotations before classes are loaded.
+ * Jar scan results are reused from the scan cache, when it is configured.
+ * Jars are read with {@link MappedJarFile} with a fallback to {@link JarFile}.
+ */
+final class PackageScanner {
+    private static final Logger logger = LoggerFactory.getLogger(PackageScanner.class.getName());
+    private static final String CLASS_FILE_NAME_EXTENSION = ".class";
+    private static final List<String> BEAN_ANNOTATIONS = ClassFileAnnotations.descriptors(List.of(Bean.class, Configuration.class));
+
+    static Set<String> scan(
+            Collection<File> locations,
+            List<ModuleReference> modules,
+            String packageName,
+            ClassPathScanConfig config
+    ) throws IOException {
+        String resourcePrefix = packageName.isEmpty()
+                ? ""
+                : packageName.replace('.', '/') + '/';
+        return new PackageScanner(locations, modules, resourcePrefix, config).scan();
+    }
+
+    private final Set<File> locations;
+    private final List<ModuleReference> modules;
+    private final String resourcePrefix;
+    private final ClassPathScanConfig config;
+    private final ClassPathScanCache cache;
+    private final Map<File, CompletableFuture<LocationScan>> scans = new ConcurrentHashMap<>();
+
+    private PackageScanner(
+            Collection<File> locations,
+            List<ModuleReference> modules,
+            String resourcePrefix,
+            ClassPathScanConfig config
+    ) {
+        this.locations = new LinkedHashSet<>(locations);
+        this.modules = modules;
+        this.resourcePrefix = resourcePrefix;
+        this.config = config;
+        this.cache = config.cacheFile() != null
+                ? ClassPathScanCache.load(config.cacheFile())
+                : null;
+    }
+
+    private Set<String> scan() throws IOException {
+        for (File location : locations) {
+            schedule(location);
+        }
+        List<CompletableFuture<LocationScan>> moduleScans = new ArrayList<>(modules.size());
+        for (ModuleReference module : modules) {
+            moduleScans.add(schedule(() -> scanModule(module)));
+        }
+        // Same deduplication as in a sequential scan: each location is used once,
+        // locations from manifest Class-Path are added before the jar that declares them.
+        Set<File> scanned = new HashSet<>(locations);
+        Set<String> result = new LinkedHashSet<>();
+        for (File location : locations) {
+            collect(location, scanned, result);
+        }
+        for (CompletableFuture<LocationScan> moduleScan : moduleScans) {
+            result.addAll(await(moduleScan).classNames());
+        }
+        if (cache != null) {
+            cache.save();
+        }
+        return unmodifiableSet(result);
+    }
+
+    private void collect(File file, Set<File> scanned, Set<String> result) throws IOException {
+        LocationScan scan = await(schedule(file));
+        for (File path : scan.classPath()) {
+            if (scanned.add(path)) {
+                collect(path, scanned, result);
+            }
+        }
+        result.addAll(scan.classNames());
+    }
+
+    private CompletableFuture<LocationScan> schedule(File file) {
+        CompletableFuture<LocationScan> future = new CompletableFuture<>();
+        CompletableFuture<LocationScan> existing = scans.putIfAbsent(file, future);
+        if (existing != null) {
+            return existing;
+        }
+        execute(future, () -> scanLocation(file, future));
+        return future;
+    }
+
+    private CompletableFuture<LocationScan> schedule(LocationScanner scanner) {
+        CompletableFuture<LocationScan> future = new CompletableFuture<>();
+        execute(future, () -> {
+            try {
+                future.complete(scanner.scan());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private void execute(CompletableFuture<LocationScan> future, Runnable task) {
+        try {
+            config.executor().execute(task);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void scanLocation(File file, CompletableFuture<LocationScan> future) {
+        try {
+            LocationScan scan = scanLocation(file);
+            // Scan locations from manifest Class-Path ahead. Unused results are dropped when merging.
+            for (File path : scan.classPath()) {
+                if (!locations.contains(path)) {
+                    schedule(path);
+                }
+            }
+            future.complete(scan);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private LocationScan await(CompletableFuture<LocationScan> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private LocationScan scanLocation(File file) throws IOException {
+        try {
+            if (!file.exists()) {
+                return LocationScan.EMPTY;
+            }
+        } catch (SecurityException e) {
+            logger.warn("Cannot access " + file + ": " + e);
+            return LocationScan.EMPTY;
+        }
+        return file.isDirectory()
+                ? scanDirectory(file)
+                : scanJar(file);
+    }
+
+    private LocationScan scanModule(ModuleReference module) throws IOException {
+        String location = "module " + module.descriptor().name();
+        List<String> classNames = new ArrayList<>();
+        try (ModuleReader reader = module.open()) {
+            Optional<InputStream> index = reader.open(BeanIndex.RESOURCE_NAME);
+            if (index.isPresent()) {
+                try (InputStream input = index.get()) {
+                    addIndexedClasses(location, input, classNames);
+                }
+                return new LocationScan(classNames, List.of());
+            }
+            List<String> names;
+            try (Stream<String> resources = reader.list()) {
+                names = resources.filter(this::matches).toList();
+            }
+            for (String name : names) {
+                Optional<InputStream> classFile = reader.open(name);
+                if (classFile.isPresent()) {
+                    try (InputStream input = classFile.get()) {
+                        if (isBeanClassFile(name, input.readAllBytes())) {
+                            classNames.add(getClassName(name));
+                        }
+                    }
+                }
+            }
+        }
+        return new LocationScan(classNames, List.of());
+    }
+
+    private LocationScan scanDirectory(File directory) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        File index = new File(directory, BeanIndex.RESOURCE_NAME);
+        if (index.isFile()) {
+            try (InputStream input = new FileInputStream(index)) {
+                addIndexedClasses(directory, input, classNames);
+            }
+            return new LocationScan(classNames, List.of());
+        }
+        File packageDirectory = new File(directory, resourcePrefix);
+        if (!packageDirectory.isDirectory()) {
+            return LocationScan.EMPTY;
+        }
+        Set<File> currentPath = new HashSet<>();
+        currentPath.add(packageDirectory.getCanonicalFile());
+        scanDirectory(packageDirectory, resourcePrefix, currentPath, classNames);
+        return new LocationScan(classNames, List.of());
+    }
+
+    private void scanDirectory(
+            File directory,
+            String resourcePrefix,
+            Set<File> currentPath,
+            List<String> result
+    ) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            logger.warn("Cannot read directory " + directory);
+            return;
+        }
+        for (File f : files) {
+            String name = f.getName();
+            if (name.endsWith(CLASS_FILE_NAME_EXTENSION)) {
+                String resourceName = resourcePrefix + name;
+                if (matches(resourceName) && isBeanClassFile(f.toString(), Files.readAllBytes(f.toPath()))) {
+                    result.add(getClassName(resourceName));
+                }
+            } else if (f.isDirectory()) {
+                File deref = f.getCanonicalFile();
+                if (currentPath.add(deref)) {
+                    scanDirectory(deref, resourcePrefix + name + "/", currentPath, result);
+                    currentPath.remove(deref);
+                }
+            }
+        }
+    }
+
+    private LocationScan scanJar(File file) throws IOException {
+        if (config.isExcluded(file)) {
+            return LocationScan.EMPTY;
+        }
+        if (cache == null) {
+            return scanJarFile(file);
+        }
+        ClassPathScanCache.Fingerprint fingerprint = ClassPathScanCache.Fingerprint.of(file);
+        ClassPathScanCache.Entry cached = cache.get(file, resourcePrefix, fingerprint);
+        if (cached != null) {
+            return new LocationScan(cached.classNames(), cached.classPath());
+        }
+        LocationScan scan = scanJarFile(file);
+        cache.put(file, resourcePrefix, fingerprint, scan.classNames(), scan.classPath());
+        return scan;
+    }
+
+    private LocationScan scanJarFile(File file) throws IOException {
+        MappedJarFile jarFile;
+        try {
+            jarFile = MappedJarFile.open(file);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            // Not a jar file or a jar that is not supported by MappedJarFile
+            return scanJarFileEntries(file);
+        }
+        try {
+            return scanMappedJarFile(file, jarFile);
+        } catch (ZipException | IndexOutOfBoundsException e) {
+            logger.debug("Could not read mapped jar file: {}", file, e);
+            return scanJarFileEntries(file);
+        }
+    }
+
+    private LocationScan scanMappedJarFile(File file, MappedJarFile jarFile) throws IOException {
+        byte[] manifest = jarFile.read(JarFile.MANIFEST_NAME);
+        List<File> classPath = manifest != null
+                ? getClassPath(file, new Manifest(new ByteArrayInputStream(manifest)))
+                : List.of();
+        List<String> classNames = new ArrayList<>();
+        byte[] index = jarFile.read(BeanIndex.RESOURCE_NAME);
+        if (index != null) {
+            addIndexedClasses(file, new ByteArrayInputStream(index), classNames);
+            return new LocationScan(classNames, classPath);
+        }
+        jarFile.forEachTopLevelClass(resourcePrefix, entry -> {
+            if (matches(entry.name()) && isBeanClassFile(entry.name(), jarFile.read(entry))) {
+                classNames.add(getClassName(entry.name()));
+            }
+        });
+        return new LocationScan(classNames, classPath);
+    }
+
+    private LocationScan scanJarFileEntries(File file) throws IOException {
+        JarFile jarFile;
+        try {
+            jarFile = new JarFile(file);
+        } catch (IOException e) {
+            // Not a jar file
+            return LocationScan.EMPTY;
+        }
+        try {
+            List<File> classPath = getClassPath(file, jarFile.getManifest());
+            List<String> classNames = new ArrayList<>();
+            JarEntry index = jarFile.getJarEntry(BeanIndex.RESOURCE_NAME);
+            if (index != null) {
+                try (InputStream input = jarFile.getInputStream(index)) {
+                    addIndexedClasses(file, input, classNames);
+                }
+                return new LocationScan(classNames, classPath);
+            }
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (matches(name) && isBeanClassFile(name, readEntry(jarFile, entry))) {
+                    classNames.add(getClassName(name));
+                }
+            }
+            return new LocationScan(classNames, classPath);
+        } finally {
+            try {
+                jarFile.close();
+            } catch (IOException ignored) { // similar to try-with-resources, but don't fail scanning
+            }
+        }
+    }
+
+    private static List<File> getClassPath(File file, Manifest manifest) throws IOException {
+        List<File> classPath = new ArrayList<>();
+        for (File path : ClassPath.getClassPathFromManifest(file, manifest)) {
+            classPath.add(path.getCanonicalFile());
+        }
+        return classPath;
+    }
+
+    private void addIndexedClasses(Object location, InputStream index, List<String> result) throws IOException {
+        List<String> classNames = BeanIndex.read(index);
+        for (String className : classNames) {
+            if (matches(BeanIndex.toResourceName(className))) {
+                result.add(className);
+            }
+        }
+        logger.debug("Loaded {} classes from bean index: {}", classNames.size(), location);
+    }
+
+    private static byte[] readEntry(JarFile jarFile, JarEntry entry) throws IOException {
+        try (InputStream input = jarFile.getInputStream(entry)) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static boolean isBeanClassFile(String path, byte[] classFile) {
+        try {
+            return ClassFileAnnotations.hasAnyAnnotation(classFile, BEAN_ANNOTATIONS);
+        } catch (IllegalArgumentException e) {
+            // let the class loader decide
+            logger.debug("Could not read class file annotations: {}", path, e);
+            return true;
+        }
+    }
+
+    private boolean matches(String resourceName) {
+        return resourceName.startsWith(resourcePrefix)
+                && resourceName.endsWith(CLASS_FILE_NAME_EXTENSION)
+                && resourceName.indexOf('$', resourcePrefix.length()) == -1
+                && !resourceName.endsWith("package-info.class")
+                && !resourceName.endsWith("module-info.class");
+    }
+
+    private static String getClassName(String resourceName) {
+        int classNameEnd = resourceName.length() - CLASS_FILE_NAME_EXTENSION.length();
+        return resourceName.substring(0, classNameEnd).replace('/', '.');
+    }
+
+    private interface LocationScanner {
+        LocationScan scan() throws IOException;
+    }
+
+    private record LocationScan(List<String> classNames, List<File> classPath) {
+        static final LocationScan EMPTY = new LocationScan(List.of(), List.of());
+    }
+}
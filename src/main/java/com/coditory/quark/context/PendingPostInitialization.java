@@ -0,0 +1,39 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Beans created by a single thread that wait for {@code @PostInit}.
+ * Beans are handed out for post initialization only when the thread holds no bean holder locks,
+ * so {@code @PostInit} never runs in the middle of another bean creation.
+ */
+final class PendingPostInitialization {
+    private final Queue<BeanHolder<?>> holders = new ArrayDeque<>();
+    private int lockedHolders = 0;
+
+    void add(BeanHolder<?> holder) {
+        holders.add(holder);
+    }
+
+    void locked() {
+        ++lockedHolders;
+    }
+
+    void unlocked() {
+        --lockedHolders;
+    }
+
+    boolean isTopLevel() {
+        return lockedHolders == 0;
+    }
+
+    @Nullable
+    BeanHolder<?> poll() {
+        return lockedHolders == 0
+                ? holders.poll()
+                : null;
+    }
+}
@@ -0,0 +1,158 @@
+package com.coditory.quark.context;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable hash set that shares structure between versions (hash array mapped trie).
+ * Adding an element copies only the path to the element, so the cost is O(log32 n).
+ * Supports null elements.
+ */
+final class PersistentHashSet<E> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+    private static final PersistentHashSet<?> EMPTY = new PersistentHashSet<>(BitmapNode.EMPTY, 0);
+
+    @SuppressWarnings("unchecked")
+    static <E> PersistentHashSet<E> empty() {
+        return (PersistentHashSet<E>) EMPTY;
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashSet(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    boolean contains(Object element) {
+        return root.contains(element, hash(element), 0);
+    }
+
+    PersistentHashSet<E> with(E element) {
+        Node updated = root.with(element, hash(element), 0);
+        return updated == root
+                ? this
+                : new PersistentHashSet<>(updated, size + 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int hash(Object element) {
+        int hash = Objects.hashCode(element);
+        return hash ^ (hash >>> 16);
+    }
+
+    private interface Node {
+        boolean contains(Object element, int hash, int shift);
+
+        /**
+         * @return the same node if the element is already present
+         */
+        Node with(Object element, int hash, int shift);
+    }
+
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        // elements or child nodes
+        private final Object[] entries;
+
+        BitmapNode(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean contains(Object element, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return false;
+            }
+            Object entry = entries[index(bit)];
+            return entry instanceof Node node
+                    ? node.contains(element, hash, shift + BITS)
+                    : Objects.equals(entry, element);
+        }
+
+        @Override
+        public Node with(Object element, int hash, int shift) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] updated = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, updated, 0, index);
+                updated[index] = element;
+                System.arraycopy(entries, index, updated, index + 1, entries.length - index);
+                return new BitmapNode(bitmap | bit, updated);
+            }
+            Object entry = entries[index];
+            Node child;
+            if (entry instanceof Node node) {
+                child = node.with(element, hash, shift + BITS);
+                if (child == node) {
+                    return this;
+                }
+            } else if (Objects.equals(entry, element)) {
+                return this;
+            } else {
+                child = createNode(shift + BITS)
+                        .with(entry, hash(entry), shift + BITS)
+                        .with(element, hash, shift + BITS);
+            }
+            Object[] updated = entries.clone();
+            updated[index] = child;
+            return new BitmapNode(bitmap, updated);
+        }
+
+        private static Node createNode(int shift) {
+            return shift > MAX_SHIFT
+                    ? CollisionNode.EMPTY
+                    : EMPTY;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    // elements with equal hashes
+    private static final class CollisionNode implements Node {
+        static final CollisionNode EMPTY = new CollisionNode(new Object[0]);
+
+        private final Object[] elements;
+
+        CollisionNode(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public boolean contains(Object element, int hash, int shift) {
+            for (Object item : elements) {
+                if (Objects.equals(item, element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Node with(Object element, int hash, int shift) {
+            if (contains(element, hash, shift)) {
+                return this;
+            }
+            Object[] updated = Arrays.copyOf(elements, elements.length + 1);
+            updated[elements.length] = element;
+            return new CollisionNode(updated);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of resolving which beans are registered in the context.
+ */
+record ResolutionConfig(ClassLoader classLoader, @Nullable Path planFile) {
+}
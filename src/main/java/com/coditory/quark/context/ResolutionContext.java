@@ -10,16 +10,27 @@ import java.util.Map;
 
 import static com.coditory.quark.context.BeanDescriptor.descriptor;
 import static com.coditory.quark.context.Preconditions.expectNonNull;
+import static com.coditory.quark.context.ResolutionPath.emptyResolutionPath;
 
 public final class ResolutionContext {
     private final Context context;
+    private final BeanHolder<?> holder;
     private final ResolutionPath path;
 
     ResolutionContext(
             Context context,
             ResolutionPath path
+    ) {
+        this(context, null, path);
+    }
+
+    ResolutionContext(
+            Context context,
+            BeanHolder<?> holder,
+            ResolutionPath path
     ) {
         this.context = context;
+        this.holder = holder;
         this.path = path;
     }
 
@@ -29,34 +40,77 @@ public final class ResolutionContext {
     }
 
     @NotNull
-    ResolutionContext withPath(ResolutionPath path) {
-        return new ResolutionContext(context, path);
+    ResolutionContext withoutPath() {
+        return new ResolutionContext(context, emptyResolutionPath());
+    }
+
+    @NotNull
+    ResolutionContext withHolder(BeanHolder<?> holder) {
+        return new ResolutionContext(context, holder, path);
+    }
+
+    @NotNull
+    ResolutionContext withHolder(BeanHolder<?> holder, ResolutionPath path) {
+        return new ResolutionContext(context, holder, path);
+    }
+
+    /**
+     * Bean that resolves dependencies using this context. Null for lookups made outside a bean lifecycle.
+     */
+    @Nullable
+    BeanHolder<?> getHolder() {
+        return holder;
+    }
+
+    void schedulePostInitialization(BeanHolder<?> holder) {
+        context.schedulePostInitialization(holder);
+    }
+
+    PendingPostInitialization getPendingPostInitialization() {
+        return context.getPendingPostInitialization();
+    }
+
+    void postInitializePending() {
+        context.postInitBeans();
     }
 
     @NotNull
     public <T> T get(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return context.get(descriptor(type), path);
+        return context.get(descriptor(type), this);
     }
 
     @Nullable
     public <T> T getOrNull(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return context.getOrNull(descriptor(type), path);
+        return context.getOrNull(descriptor(type), this);
     }
 
     @NotNull
     public <T> T get(@NotNull Class<T> type, @NotNull String name) {
         expectNonNull(type, "type");
         expectNonNull(name, "name");
-        return context.get(descriptor(type, name), path);
+        return context.get(context.findDescriptor(type, name), this);
     }
 
     @Nullable
     public <T> T getOrNull(@NotNull Class<T> type, @NotNull String name) {
         expectNonNull(type, "type");
         expectNonNull(name, "name");
-        return context.getOrNull(descriptor(type, name), path);
+        return context.getOrNull(context.findDescriptor(type, name), this);
+    }
+
+    @NotNull
+    public <T> BeanPool<T> getPool(@NotNull Class<T> type) {
+        expectNonNull(type, "type");
+        return context.getPool(descriptor(type), this);
+    }
+
+    @NotNull
+    public <T> BeanPool<T> getPool(@NotNull Class<T> type, @NotNull String name) {
+        expectNonNull(type, "type");
+        expectNonNull(name, "name");
+        return context.getPool(context.findDescriptor(type, name), this);
     }
 
     public boolean contains(@NotNull Class<?> type) {
@@ -78,12 +132,12 @@ public final class ResolutionContext {
     @NotNull
     public <T> List<T> getAll(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return context.getAll(type, path);
+        return context.getAll(type, this);
     }
 
     @NotNull
     public <T> List<T> getAllOrEmpty(@NotNull Class<T> type) {
         expectNonNull(type, "type");
-        return context.getAllOrEmpty(type, path);
+        return context.getAllOrEmpty(type, this);
     }
 }
@@ -5,10 +5,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 
 import static com.coditory.quark.context.BeanDescriptor.descriptor;
 import static com.coditory.quark.context.Preconditions.expect;
@@ -17,8 +14,12 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
+/**
+ * Immutable path of beans being created.
+ * Each path points to its parent, so adding an element does not copy the path.
+ */
 public final class ResolutionPath {
-    private static final ResolutionPath EMPTY = new ResolutionPath(List.of());
+    private static final ResolutionPath EMPTY = new ResolutionPath();
 
     public static ResolutionPath emptyResolutionPath() {
         return EMPTY;
@@ -29,34 +30,58 @@ public final class ResolutionPath {
         List<BeanDescriptor<?>> path = Arrays.stream(types)
                 .map(BeanDescriptor::descriptor)
                 .collect(toList());
-        return new ResolutionPath(path);
+        return fromList(path);
     }
 
     @NotNull
     public static ResolutionPath of(@NotNull Class<?> type, String name) {
-        return new ResolutionPath(List.of(descriptor(type, name)));
+        return EMPTY.append(descriptor(type, name));
     }
 
     @NotNull
     public static ResolutionPath of(@NotNull BeanDescriptor<?> descriptor) {
-        return new ResolutionPath(List.of(descriptor));
+        return EMPTY.append(requireNonNull(descriptor));
     }
 
-    private final List<BeanDescriptor<?>> path;
-    private final Map<BeanDescriptor<?>, Integer> indexes = new HashMap<>();
-
-    private ResolutionPath(@NotNull List<BeanDescriptor<?>> path) {
-        requireNonNull(path);
-        this.path = List.copyOf(path);
-        int index = 0;
+    private static ResolutionPath fromList(List<BeanDescriptor<?>> path) {
+        ResolutionPath result = EMPTY;
         for (BeanDescriptor<?> descriptor : path) {
-            indexes.put(descriptor, index);
-            index++;
+            result = result.append(requireNonNull(descriptor));
         }
+        return result;
+    }
+
+    @Nullable
+    private final ResolutionPath parent;
+    @Nullable
+    private final BeanDescriptor<?> first;
+    @Nullable
+    private final BeanDescriptor<?> last;
+    private final int size;
+    // same as List.hashCode() of path elements
+    private final int elementsHash;
+    private final PersistentHashSet<BeanDescriptor<?>> elements;
+
+    private ResolutionPath() {
+        this.parent = null;
+        this.first = null;
+        this.last = null;
+        this.size = 0;
+        this.elementsHash = 1;
+        this.elements = PersistentHashSet.empty();
+    }
+
+    private ResolutionPath(ResolutionPath parent, BeanDescriptor<?> last) {
+        this.parent = parent;
+        this.first = parent.isEmpty() ? last : parent.first;
+        this.last = last;
+        this.size = parent.size + 1;
+        this.elementsHash = 31 * parent.elementsHash + last.hashCode();
+        this.elements = parent.elements.with(last);
     }
 
     public boolean isEmpty() {
-        return path.isEmpty();
+        return size == 0;
     }
 
     public boolean contains(@NotNull Class<?> type) {
@@ -68,67 +93,78 @@ public final class ResolutionPath {
     }
 
     public boolean contains(@NotNull BeanDescriptor<?> descriptor) {
-        return indexes.containsKey(descriptor);
+        return elements.contains(descriptor);
     }
 
     public int size() {
-        return path.size();
+        return size;
     }
 
     @Nullable
     public BeanDescriptor<?> first() {
-        return path.isEmpty() ? null : path.get(0);
+        return first;
     }
 
     @Nullable
     public BeanDescriptor<?> last() {
-        return path.isEmpty() ? null : path.get(path.size() - 1);
+        return last;
     }
 
     @Nullable
     public BeanDescriptor<?> get(int index) {
-        if (index >= path.size() || index < 0) {
+        if (index >= size || index < 0) {
             return null;
         }
-        return path.get(index);
+        ResolutionPath node = this;
+        for (int i = size - 1; i > index; --i) {
+            node = node.parent;
+        }
+        return node.last;
     }
 
     @Nullable
     public BeanDescriptor<?> getParent(@NotNull BeanDescriptor<?> descriptor) {
         expectNonNull(descriptor, "descriptor");
-        Integer index = indexes.get(descriptor);
-        return index == null || index == 0 ? null : path.get(index - 1);
+        if (!contains(descriptor)) {
+            return null;
+        }
+        for (ResolutionPath node = this; !node.isEmpty(); node = node.parent) {
+            if (node.last.equals(descriptor)) {
+                return node.parent.last;
+            }
+        }
+        return null;
     }
 
     @NotNull
     public ResolutionPath removeFirst() {
-        if (path.isEmpty()) {
+        if (isEmpty()) {
             return this;
         }
-        return remove(path.get(0));
+        return remove(first);
     }
 
     @NotNull
     public ResolutionPath removeLast() {
-        if (path.isEmpty()) {
+        if (isEmpty()) {
             return this;
         }
-        return remove(path.get(path.size() - 1));
+        return remove(last);
     }
 
     @NotNull
     public ResolutionPath remove(@NotNull BeanDescriptor<?> descriptor) {
-        List<BeanDescriptor<?>> newPath = new ArrayList<>(path);
+        List<BeanDescriptor<?>> newPath = toDescriptorList();
         newPath.remove(descriptor);
-        return new ResolutionPath(newPath);
+        return fromList(newPath);
     }
 
     public boolean startsWith(@NotNull BeanDescriptor<?> descriptor) {
-        return !path.isEmpty() && path.get(0).equals(descriptor);
+        return !isEmpty() && first.equals(descriptor);
     }
 
     public boolean endsWith(@NotNull BeanDescriptor<?> descriptor) {
-        return !path.isEmpty() && path.get(path.size() - 1).equals(descriptor);
+        return !isEmpty() && last.equals(descriptor);
     }
 
     @NotNull
@@ -138,16 +174,32 @@ public final class ResolutionPath {
 
     @NotNull
     public ResolutionPath add(@NotNull BeanDescriptor<?> descriptor) {
-        return add(descriptor.type(), descriptor.name());
+        expectNonNull(descriptor, "descriptor");
+        return addElement(descriptor);
     }
 
     @NotNull
     public ResolutionPath add(@NotNull Class<?> type, String name) {
-        BeanDescriptor<?> element = descriptor(type, name);
-        expect(!path.contains(element), "Duplicated element on resolution path");
-        List<BeanDescriptor<?>> newPath = new ArrayList<>(path);
-        newPath.add(element);
-        return new ResolutionPath(newPath);
+        return addElement(descriptor(type, name));
+    }
+
+    private ResolutionPath addElement(BeanDescriptor<?> element) {
+        expect(!contains(element), "Duplicated element on resolution path");
+        return append(element);
+    }
+
+    private ResolutionPath append(BeanDescriptor<?> element) {
+        return new ResolutionPath(this, element);
+    }
+
+    private List<BeanDescriptor<?>> toDescriptorList() {
+        BeanDescriptor<?>[] result = new BeanDescriptor<?>[size];
+        ResolutionPath node = this;
+        for (int i = size - 1; i >= 0; --i) {
+            result[i] = node.last;
+            node = node.parent;
+        }
+        return new ArrayList<>(Arrays.asList(result));
     }
 
     @NotNull
@@ -157,9 +209,8 @@ public final class ResolutionPath {
 
     @NotNull
     public String toPathAsString(BeanDescriptor<?> descriptor) {
-        List<BeanDescriptor<?>> newPath = this.path;
+        List<BeanDescriptor<?>> newPath = toDescriptorList();
         if (descriptor != null) {
-            newPath = new ArrayList<>(this.path);
             newPath.add(descriptor);
         }
         return newPath.stream()
@@ -177,11 +228,21 @@ public final class ResolutionPath {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ResolutionPath that = (ResolutionPath) o;
-        return path.equals(that.path);
+        if (size != that.size || elementsHash != that.elementsHash) return false;
+        ResolutionPath node = this;
+        ResolutionPath other = that;
+        while (!node.isEmpty()) {
+            if (node == other) return true;
+            if (!node.last.equals(other.last)) return false;
+            node = node.parent;
+            other = other.parent;
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(path);
+        // same as Objects.hash(path)
+        return 31 + elementsHash;
     }
 }
@@ -0,0 +1,315 @@
+package com.coditory.quark.context;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Result of context resolution persisted between application starts.
+ * <p>
+ * Plan is keyed by a fingerprint of bean holders: their descriptors, creators
+ * and versions (size and modification time) of the class files that define them.
+ * Plan is used only if properties and classes checked by conditions did not change.
+ * Plan is not used for conditions other than {@link BeanConditions} and conditional annotations,
+ * as they may read state outside of {@link ConditionContext}.
+ * Property values are stored as hashes.
+ */
+final class ResolutionPlan {
+    private static final Logger log = LoggerFactory.getLogger(ResolutionPlan.class);
+    private static final int MAGIC = 0x51525031; // QRP1
+    private static final int VERSION = 1;
+    private static final String LAMBDA_CLASS_NAME_MARKER = "$$Lambda";
+
+    static boolean isSupported(Collection<BeanHolder<?>> holders) {
+        return holders.stream()
+                .allMatch(holder -> hasTrackedConditions(holder.getCreator()));
+    }
+
+    static String fingerprint(List<BeanHolder<?>> holders) {
+        MessageDigest digest = sha256();
+        Map<File, String> locations = new HashMap<>();
+        for (BeanHolder<?> holder : holders) {
+            update(digest, holder.getDescriptor().toString());
+            update(digest, describe(holder.getCreator()));
+            for (Class<?> type : definingClasses(holder.getCreator())) {
+                update(digest, classVersion(type, locations));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static ResolutionPlan of(
+            String fingerprint,
+            List<BeanHolder<?>> holders,
+            Set<BeanHolder<?>> registered,
+            ConditionInputs inputs,
+            Map<String, Object> properties
+    ) {
+        Map<String, String> propertyHashes = new TreeMap<>();
+        for (String name : inputs.getProperties()) {
+            propertyHashes.put(name, hashValue(properties.get(name)));
+        }
+        Map<BeanHolder<?>, Integer> holderIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < holders.size(); ++i) {
+            holderIndexes.put(holders.get(i), i);
+        }
+        List<Integer> indexes = new ArrayList<>(registered.size());
+        for (BeanHolder<?> holder : registered) {
+            indexes.add(holderIndexes.get(holder));
+        }
+        return new ResolutionPlan(fingerprint, propertyHashes, Map.copyOf(inputs.getClasses()), List.copyOf(indexes));
+    }
+
+    @Nullable
+    static ResolutionPlan load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                log.debug("Skipping resolution plan with unsupported format: {}", file);
+                return null;
+            }
+            String fingerprint = input.readUTF();
+            int propertiesCount = input.readInt();
+            Map<String, String> properties = new TreeMap<>();
+            for (int i = 0; i < propertiesCount; ++i) {
+                properties.put(input.readUTF(), input.readUTF());
+            }
+            int classesCount = input.readInt();
+            Map<String, Boolean> classes = new TreeMap<>();
+            for (int i = 0; i < classesCount; ++i) {
+                classes.put(input.readUTF(), input.readBoolean());
+            }
+            int registeredCount = input.readInt();
+            List<Integer> registered = new ArrayList<>();
+            for (int i = 0; i < registeredCount; ++i) {
+                registered.add(input.readInt());
+            }
+            return new ResolutionPlan(fingerprint, properties, classes, registered);
+        } catch (IOException e) {
+            log.warn("Could not read resolution plan: " + file + ". Resolving context without the plan.", e);
+            return null;
+        }
+    }
+
+    private final String fingerprint;
+    private final Map<String, String> properties;
+    private final Map<String, Boolean> classes;
+    private final List<Integer> registered;
+
+    private ResolutionPlan(String fingerprint, Map<String, String> properties, Map<String, Boolean> classes, List<Integer> registered) {
+        this.fingerprint = fingerprint;
+        this.properties = properties;
+        this.classes = classes;
+        this.registered = registered;
+    }
+
+    boolean matches(String fingerprint, int holdersCount, Map<String, Object> properties, ClassPresence classes) {
+        if (!this.fingerprint.equals(fingerprint)) {
+            log.debug("Resolution plan does not match bean definitions");
+            return false;
+        }
+        for (Map.Entry<String, String> entry : this.properties.entrySet()) {
+            if (!entry.getValue().equals(hashValue(properties.get(entry.getKey())))) {
+                log.debug("Resolution plan does not match property: {}", entry.getKey());
+                return false;
+            }
+        }
+        for (Map.Entry<String, Boolean> entry : this.classes.entrySet()) {
+            if (entry.getValue() != classes.isPresent(entry.getKey())) {
+                log.debug("Resolution plan does not match class presence: {}", entry.getKey());
+                return false;
+            }
+        }
+        return registered.stream()
+                .allMatch(index -> index >= 0 && index < holdersCount);
+    }
+
+    List<BeanHolder<?>> getRegisteredHolders(List<BeanHolder<?>> holders) {
+        return registered.stream()
+                .<BeanHolder<?>>map(holders::get)
+                .toList();
+    }
+
+    void save(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                write(temp);
+                moveAtomically(temp, file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not save resolution plan: " + file, e);
+        }
+    }
+
+    private void write(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(fingerprint);
+            output.writeInt(properties.size());
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeUTF(entry.getValue());
+            }
+            output.writeInt(classes.size());
+            for (Map.Entry<String, Boolean> entry : classes.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeBoolean(entry.getValue());
+            }
+            output.writeInt(registered.size());
+            for (int index : registered) {
+                output.writeInt(index);
+            }
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean hasTrackedConditions(BeanCreator<?> creator) {
+        return switch (creator) {
+            case ConstructorBasedBeanCreator<?> it -> true;
+            case MethodBasedBeanCreator<?> it -> true;
+            case GeneratedBeanCreator<?> it -> BeanConditions.isBuiltIn(it.getBean().condition());
+            case ConditionalBeanCreator<?> it -> BeanConditions.isBuiltIn(it.condition()) && hasTrackedConditions(it.creator());
+            default -> !overridesIsActive(creator);
+        };
+    }
+
+    // proxies, e.g. closures coerced to a bean creator, declare all interface methods
+    private static boolean overridesIsActive(BeanCreator<?> creator) {
+        Class<?> type = creator.getClass();
+        if (Proxy.isProxyClass(type)) {
+            return false;
+        }
+        try {
+            return type.getMethod("isActive", ConditionContext.class).getDeclaringClass() != BeanCreator.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static String describe(BeanCreator<?> creator) {
+        return switch (creator) {
+            case ConstructorBasedBeanCreator<?> it -> it.toString();
+            case MethodBasedBeanCreator<?> it -> it.toString();
+            case GeneratedBeanCreator<?> it -> it.toString();
+            case ConditionalBeanCreator<?> it -> describe(it.creator()) + " if " + className(it.condition().getClass());
+            default -> className(creator.getClass());
+        };
+    }
+
+    private static List<Class<?>> definingClasses(BeanCreator<?> creator) {
+        return switch (creator) {
+            case ConstructorBasedBeanCreator<?> it -> List.of(it.getType());
+            case MethodBasedBeanCreator<?> it -> List.of(it.getMethod().getDeclaringClass());
+            case GeneratedBeanCreator<?> it -> List.of(it.getBean().type(), it.getBean().condition().getClass());
+            case ConditionalBeanCreator<?> it -> {
+                List<Class<?>> classes = new ArrayList<>(definingClasses(it.creator()));
+                classes.add(it.condition().getClass());
+                yield classes;
+            }
+            default -> List.of(creator.getClass());
+        };
+    }
+
+    private static String classVersion(Class<?> type, Map<File, String> locations) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        URL url = codeSource != null ? codeSource.getLocation() : null;
+        if (url == null) {
+            return className(type);
+        }
+        if (!url.getProtocol().equals("file")) {
+            return url.toString();
+        }
+        File location = toFile(url);
+        if (location.isDirectory()) {
+            File classFile = new File(location, className(type).replace('.', '/') + ".class");
+            return fileVersion(classFile);
+        }
+        return locations.computeIfAbsent(location, ResolutionPlan::fileVersion);
+    }
+
+    private static String fileVersion(File file) {
+        return file.getPath() + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    // lambda class names change between runs
+    private static String className(Class<?> type) {
+        String name = type.getName();
+        int lambdaIndex = name.indexOf(LAMBDA_CLASS_NAME_MARKER);
+        return lambdaIndex < 0
+                ? name
+                : name.substring(0, lambdaIndex);
+    }
+
+    private static String hashValue(@Nullable Object value) {
+        if (value == null) {
+            return "";
+        }
+        MessageDigest digest = sha256();
+        update(digest, value.getClass().getName());
+        update(digest, value.toString());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static File toFile(URL url) {
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return new File(url.getPath());
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing SHA-256 algorithm", e);
+        }
+    }
+}
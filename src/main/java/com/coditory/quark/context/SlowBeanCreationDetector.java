@@ -8,17 +8,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class SlowBeanCreationDetector {
     private final Logger logger = LoggerFactory.getLogger(getClass());
-    private final Map<BeanDescriptor<?>, Set<BeanDescriptor<?>>> dependencies = new HashMap<>();
-    private final Map<BeanDescriptor<?>, Set<BeanDescriptor<?>>> parentDependencies = new HashMap<>();
-    private final Map<BeanDescriptor<?>, Timer> timers = new HashMap<>();
-    private final Map<BeanDescriptor<?>, Timer> totalTimers = new HashMap<>();
+    private final Map<BeanDescriptor<?>, Set<BeanDescriptor<?>>> dependencies = new ConcurrentHashMap<>();
+    private final Map<BeanDescriptor<?>, Set<BeanDescriptor<?>>> parentDependencies = new ConcurrentHashMap<>();
+    private final Map<BeanDescriptor<?>, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<BeanDescriptor<?>, Timer> totalTimers = new ConcurrentHashMap<>();
     private final Duration timerThreshold;
     private final Duration totalTimerThreshold;
 
@@ -33,9 +32,9 @@ final class SlowBeanCreationDetector {
         totalTimers.put(event.descriptor(), Timer.start());
         BeanDescriptor<?> parent = event.path().getParent(event.descriptor());
         if (parent != null) {
-            dependencies.computeIfAbsent(parent, (k) -> new HashSet<>())
+            dependencies.computeIfAbsent(parent, (k) -> ConcurrentHashMap.newKeySet())
                     .add(event.descriptor());
-            parentDependencies.computeIfAbsent(event.descriptor(), (k) -> new HashSet<>())
+            parentDependencies.computeIfAbsent(event.descriptor(), (k) -> ConcurrentHashMap.newKeySet())
                     .add(parent);
             Timer parentTimer = timers.get(parent);
             if (parentTimer != null) {
@@ -47,7 +46,7 @@ final class SlowBeanCreationDetector {
     @EventHandler
     public void handle(BeanPostCreateEvent event) {
         for (BeanDescriptor<?> parent : parentDependencies.getOrDefault(event.descriptor(), Set.of())) {
-            Set<BeanDescriptor<?>> children = dependencies.computeIfAbsent(parent, (k) -> new HashSet<>());
+            Set<BeanDescriptor<?>> children = dependencies.computeIfAbsent(parent, (k) -> ConcurrentHashMap.newKeySet());
             children.remove(event.descriptor());
             Timer parentTimer = timers.get(parent);
             if (children.isEmpty() && parentTimer != null) {
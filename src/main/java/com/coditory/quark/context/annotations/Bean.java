@@ -1,5 +1,7 @@
 package com.coditory.quark.context.annotations;
 
+import com.coditory.quark.context.BeanScope;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -40,4 +42,16 @@ public @interface Bean {
      * - -2 - never report
      */
     int creationTotalTimeMs() default -1;
+
+    /**
+     * Bean scope. Only singleton beans can be created eagerly.
+     */
+    BeanScope scope() default BeanScope.SINGLETON;
+
+    /**
+     * Maximal number of instances of a pooled bean.
+     * Special values:
+     * - 0 - number of available processors
+     */
+    int poolSize() default 0;
 }
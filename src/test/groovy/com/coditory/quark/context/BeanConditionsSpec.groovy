@@ -2,6 +2,9 @@ package com.coditory.quark.context
 
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Predicate
+
 class BeanConditionsSpec extends Specification {
     def "should register bean with condition on a property"() {
         given:
@@ -69,9 +72,256 @@ class BeanConditionsSpec extends Specification {
             context.getOrNull(Bar) == null
     }
 
+    def "should resolve chain of 10k conditional beans with linear number of condition checks"() {
+        given:
+            int count = 10_000
+            AtomicInteger conditionChecks = new AtomicInteger()
+            ContextBuilder builder = Context.builder()
+            (count - 1..0).each { int i ->
+                String previous = "bar" + (i - 1)
+                String name = "bar" + i
+                builder.add(Bar.class, name, { conditionChecks.incrementAndGet(); i == 0 || it.hasBean(Bar, previous) }, { new Bar() })
+                builder.add(Foo.class, "foo" + i, { conditionChecks.incrementAndGet(); !it.hasBean(Bar, name) }, { new Foo() })
+            }
+
+        when:
+            Context context = builder.build()
+
+        then:
+            (0..<count).every { context.contains(Bar, "bar" + it) }
+            (0..<count).every { !context.contains(Foo, "foo" + it) }
+            conditionChecks.get() < 10 * count
+    }
+
+    def "should check class presence once per class using builder class loader without initializing class"() {
+        given:
+            String probeName = BeanConditionsSpec.name + "Probe"
+            BeanConditionsSpecClassLoader classLoader = new BeanConditionsSpecClassLoader(getClass().classLoader)
+
+        when:
+            Context context = Context.builder()
+                    .setClassLoader(classLoader)
+                    .add(Bar.class, BeanConditions.onClass(probeName), { new Bar() })
+                    .add(Foo.class, BeanConditions.onClass(probeName), { new Foo() })
+                    .add(Baz.class, BeanConditions.onMissingClass("com.acme.MissingClass"), { new Baz() })
+                    .build()
+
+        then:
+            context.contains(Bar)
+            context.contains(Foo)
+            context.contains(Baz)
+            classLoader.requests.count(probeName) == 1
+            !BeanConditionsSpecProbeState.initialized
+    }
+
+    def "should compile class without conditional annotations to always active condition"() {
+        expect:
+            ConditionsResolver.compile(Bar).is(BeanConditions.always())
+    }
+
+    def "should register the same beans as repeated pass resolution for random condition graphs"() {
+        given:
+            ClassPresence classes = new ClassPresence(getClass().classLoader)
+            List<Long> mismatches = []
+            int failures = 0
+            int inactiveRegistered = 0
+
+        when:
+            (0L..<500L).each { long seed ->
+                Random random = new Random(seed)
+                Set<BeanHolder<?>> holders = randomHolders(random, 1 + random.nextInt(25))
+                Object expected = resolveOrError { BeanConditionsSpecLegacyResolver.resolve(holders, [:], classes) }
+                Object actual = resolveOrError { ContextResolver.resolve(holders, [:], new ResolutionConfig(getClass().classLoader, null)) }
+                if (expected != actual) {
+                    mismatches.add(seed)
+                }
+                if (expected instanceof String) {
+                    failures++
+                }
+                if (BeanConditionsSpecLegacyResolver.hasInactiveStableBean(holders, classes)) {
+                    inactiveRegistered++
+                }
+            }
+
+        then:
+            mismatches == []
+            failures > 0
+            inactiveRegistered > 0
+    }
+
+    private static Object resolveOrError(Closure<Map<BeanDescriptor<?>, List<BeanHolder<?>>>> resolver) {
+        try {
+            return resolver()
+        } catch (ContextException e) {
+            return e.message
+        }
+    }
+
+    private static final List<Class<?>> CONDITION_TYPES = [Shape, Marker, Circle, Square, Disc, Line, Dot, Cube]
+    private static final List<Class<?>> BEAN_TYPES = [Circle, Square, Disc, Line, Dot, Cube]
+    private static final List<String> BEAN_NAMES = ["x", "y", "z"]
+
+    private static Set<BeanHolder<?>> randomHolders(Random random, int count) {
+        Set<BeanHolder<?>> holders = new LinkedHashSet<>()
+        count.times {
+            Class<?> type = BEAN_TYPES[random.nextInt(BEAN_TYPES.size())]
+            String name = random.nextInt(4) == 0 ? BEAN_NAMES[random.nextInt(BEAN_NAMES.size())] : null
+            Predicate<ConditionContext> condition = randomCondition(random, 0)
+            BeanCreator creator = { null } as BeanCreator
+            holders.add(BeanHolder.holder(BeanDescriptor.descriptor(type, name), new ConditionalBeanCreator(condition, creator)))
+        }
+        return holders
+    }
+
+    private static Predicate<ConditionContext> randomCondition(Random random, int depth) {
+        int kind = random.nextInt(depth > 2 ? 6 : 9)
+        Class<?> type = CONDITION_TYPES[random.nextInt(CONDITION_TYPES.size())]
+        String name = BEAN_NAMES[random.nextInt(BEAN_NAMES.size())]
+        switch (kind) {
+            case 0: return { ConditionContext it -> true } as Predicate<ConditionContext>
+            case 1: return { ConditionContext it -> it.hasBean(type) } as Predicate<ConditionContext>
+            case 2: return { ConditionContext it -> !it.hasBean(type) } as Predicate<ConditionContext>
+            case 3: return { ConditionContext it -> it.hasBean(name) } as Predicate<ConditionContext>
+            case 4: return { ConditionContext it -> it.hasBean(type, name) } as Predicate<ConditionContext>
+            case 5: return { ConditionContext it -> !it.hasBean(name) } as Predicate<ConditionContext>
+            case 6: return randomCondition(random, depth + 1).and(randomCondition(random, depth + 1))
+            case 7: return randomCondition(random, depth + 1).or(randomCondition(random, depth + 1))
+            default: return randomCondition(random, depth + 1).negate()
+        }
+    }
+
+    interface Shape {}
+
+    interface Marker {}
+
+    static class Circle implements Shape {}
+
+    static class Square implements Shape, Marker {}
+
+    static class Disc extends Circle {}
+
+    static class Line implements Marker {}
+
+    static class Dot {}
+
+    static class Cube extends Square {}
+
     class Baz {}
 
     class Bar {}
 
     class Foo {}
 }
+
+/**
+ * Copy of the repeated pass resolution used before dependency tracking was introduced.
+ */
+class BeanConditionsSpecLegacyResolver {
+    static Map<BeanDescriptor<?>, List<BeanHolder<?>>> resolve(Set<BeanHolder<?>> beanHolders, Map<String, Object> properties, ClassPresence classes) {
+        Set<BeanHolder<?>> holders = new LinkedHashSet<>(beanHolders)
+        ConditionContext contextWithAllBeans = ConditionContext.from(holders, properties, classes, null)
+        ConditionContext contextWithNoBeans = ConditionContext.from(properties, classes, null)
+        Set<BeanHolder<?>> stable = holders.findAll { it.isActive(contextWithNoBeans) && it.isActive(contextWithAllBeans) } as LinkedHashSet
+        holders.removeAll(stable)
+        Set<BeanHolder<?>> additive = holders.findAll { it.isActive(contextWithAllBeans) } as LinkedHashSet
+        holders.removeAll(additive)
+        Set<BeanHolder<?>> registered = register(stable, additive, holders, properties, classes)
+        Set<String> names = new LinkedHashSet<>()
+        Map<BeanDescriptor<?>, List<BeanHolder<?>>> result = new LinkedHashMap<>()
+        registered.each { holder ->
+            addBeanName(names, holder)
+            holder.beanClassHierarchyDescriptors.each { result.computeIfAbsent(it, { [] }).add(holder) }
+        }
+        return result
+    }
+
+    static boolean hasInactiveStableBean(Set<BeanHolder<?>> holders, ClassPresence classes) {
+        ConditionContext contextWithAllBeans = ConditionContext.from(holders, [:], classes, null)
+        ConditionContext contextWithNoBeans = ConditionContext.from([:], classes, null)
+        Set<BeanHolder<?>> stable = holders.findAll { it.isActive(contextWithNoBeans) && it.isActive(contextWithAllBeans) } as LinkedHashSet
+        ConditionContext context = ConditionContext.from(stable, [:], classes, null)
+        return stable.any { !it.isActive(context) }
+    }
+
+    private static Set<BeanHolder<?>> register(
+            Set<BeanHolder<?>> stable,
+            Set<BeanHolder<?>> additive,
+            Set<BeanHolder<?>> remaining,
+            Map<String, Object> properties,
+            ClassPresence classes
+    ) {
+        Set<String> names = new LinkedHashSet<>()
+        Set<BeanHolder<?>> registeredBeans = new LinkedHashSet<>()
+        stable.each {
+            addBeanName(names, it)
+            registeredBeans.add(it)
+        }
+        ConditionContext context = ConditionContext.from(registeredBeans, properties, classes, null)
+        int registered
+        do {
+            do {
+                registered = registeredBeans.size()
+                for (BeanHolder<?> holder : additive) {
+                    if (canBeAddedToContext(holder, registeredBeans, context)) {
+                        addBeanName(names, holder)
+                        registeredBeans.add(holder)
+                        context = context.with(holder)
+                    }
+                }
+                additive.removeAll(registeredBeans)
+            } while (registered < registeredBeans.size())
+            for (BeanHolder<?> holder : remaining) {
+                if (canBeAddedToContext(holder, registeredBeans, context)) {
+                    addBeanName(names, holder)
+                    registeredBeans.add(holder)
+                    context = context.with(holder)
+                    break
+                }
+            }
+            remaining.removeAll(registeredBeans)
+        } while (registered < registeredBeans.size())
+        return registeredBeans
+    }
+
+    private static boolean canBeAddedToContext(BeanHolder<?> holder, Set<BeanHolder<?>> registeredBeans, ConditionContext context) {
+        if (!holder.isActive(context)) {
+            return false
+        }
+        ConditionContext contextWithBean = context.with(holder)
+        return registeredBeans.every { it.isActive(contextWithBean) }
+    }
+
+    private static void addBeanName(Set<String> names, BeanHolder<?> holder) {
+        String name = holder.beanName
+        if (name == null) {
+            return
+        }
+        if (!names.add(name)) {
+            throw new ContextException("Duplicated bean name: " + name)
+        }
+    }
+}
+
+class BeanConditionsSpecProbeState {
+    static boolean initialized = false
+}
+
+class BeanConditionsSpecProbe {
+    static {
+        BeanConditionsSpecProbeState.initialized = true
+    }
+}
+
+class BeanConditionsSpecClassLoader extends ClassLoader {
+    final List<String> requests = Collections.synchronizedList([])
+
+    BeanConditionsSpecClassLoader(ClassLoader parent) {
+        super(parent)
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        requests.add(name)
+        return super.loadClass(name, resolve)
+    }
+}
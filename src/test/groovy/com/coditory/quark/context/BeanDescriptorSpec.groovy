@@ -0,0 +1,42 @@
+package com.coditory.quark.context
+
+import spock.lang.Specification
+
+import static com.coditory.quark.context.BeanDescriptor.descriptor
+
+class BeanDescriptorSpec extends Specification {
+    def "should reuse unnamed descriptor of a class"() {
+        expect:
+            descriptor(Foo).is(descriptor(Foo))
+            descriptor(Foo, null).is(descriptor(Foo))
+            descriptor(Foo, " ").is(descriptor(Foo))
+            descriptor(Bar, null).withType(Foo).is(descriptor(Foo))
+    }
+
+    def "should compare descriptors by type and name"() {
+        expect:
+            descriptor(Foo, "foo") == descriptor(Foo, "foo")
+            descriptor(Foo, "foo").hashCode() == descriptor(Foo, "foo").hashCode()
+            descriptor(Foo, "foo") != descriptor(Foo, "bar")
+            descriptor(Foo, "foo") != descriptor(Bar, "foo")
+            descriptor(Foo, "foo") != descriptor(Foo)
+            new BeanDescriptor(Foo, null) == descriptor(Foo)
+    }
+
+    def "should find named bean with a new descriptor instance"() {
+        given:
+            Context context = Context.builder()
+                    .add(new Foo(), "foo")
+                    .build()
+
+        expect:
+            context.get(descriptor(Foo, "foo")) != null
+            context.get(new BeanDescriptor(Foo, "foo")) != null
+            context.contains(Foo, "foo")
+            !context.contains(Foo, "bar")
+    }
+
+    static class Foo {}
+
+    static class Bar {}
+}
@@ -1,10 +1,28 @@
 package com.coditory.quark.context
 
+import ch.qos.logback.classic.Logger
 import com.coditory.quark.context.annotations.Close
 import com.coditory.quark.context.annotations.Init
+import com.coditory.quark.context.annotations.PostInit
+import com.coditory.quark.context.base.CapturingAppender
+import org.slf4j.LoggerFactory
 import spock.lang.Specification
 
+import java.time.Duration
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
 class BeanLifecycleSpec extends Specification {
+    CapturingAppender closeLogs = new CapturingAppender()
+
+    def setup() {
+        closeLogger().addAppender(closeLogs)
+    }
+
+    def cleanup() {
+        closeLogger().detachAppender(closeLogs)
+    }
+
     def "should register beans and initialize them"() {
         given:
             Context context = Context.builder()
@@ -116,6 +134,220 @@ class BeanLifecycleSpec extends Specification {
             e.message.startsWith("Could not close bean: LifecycleAnnotatedWithDeps")
     }
 
+    def "should pass exception thrown by @Init annotated method as a direct cause"() {
+        when:
+            Context.builder()
+                    .add(new FailingInit())
+                    .build()
+        then:
+            BeanInitializationException e = thrown(BeanInitializationException)
+            e.cause instanceof IllegalStateException
+            e.cause.message == "Init failure"
+    }
+
+    def "should run lifecycle methods inherited from superclass"() {
+        given:
+            InheritedLifecycle bean = new InheritedLifecycle()
+            Context context = Context.builder()
+                    .add(bean)
+                    .build()
+        when:
+            context.get(InheritedLifecycle)
+        then:
+            bean.initialized
+            bean.initialized2
+            bean.initializedAfterParent
+
+        when:
+            context.close()
+        then:
+            bean.finalized
+            bean.finalized2
+    }
+
+    def "should close beans in reverse dependency order"() {
+        given:
+            List<String> closed = []
+            Context context = Context.builder()
+                    .add(ClosingDependency, { new ClosingDependency(closed) })
+                    .add(ClosingDependent, { ResolutionContext ctx -> new ClosingDependent(closed, ctx.get(ClosingDependency)) })
+                    .closeInDependencyOrder()
+                    .build()
+        and:
+            context.get(ClosingDependent)
+        when:
+            context.close()
+        then:
+            closed == ["ClosingDependent", "ClosingDependency"]
+    }
+
+    def "should stop waiting for a bean that exceeds close timeout"() {
+        given:
+            List<String> closed = [].asSynchronized()
+            Context context = Context.builder()
+                    .add(ClosingDependency, { new ClosingDependency(closed, 1000) })
+                    .setBeanCloseTimeout(Duration.ofMillis(50))
+                    .build()
+        and:
+            context.get(ClosingDependency)
+        when:
+            Duration duration = measure { context.close() }
+        then:
+            duration < Duration.ofMillis(500)
+            closed == []
+            closeLogs.countCapturedEvents("Beans exceeded close timeout: {}", [["ClosingDependency"]]) == 1
+    }
+
+    def "should keep dependencies of a bean that exceeds close timeout open"() {
+        given:
+            List<String> closed = [].asSynchronized()
+            Context context = Context.builder()
+                    .add(ClosingDependency, { new ClosingDependency(closed) })
+                    .add(ClosingDependent, { ResolutionContext ctx -> new ClosingDependent(closed, ctx.get(ClosingDependency), 1000) })
+                    .setBeanCloseTimeout(Duration.ofMillis(50))
+                    .build()
+        and:
+            context.get(ClosingDependent)
+        when:
+            Duration duration = measure { context.close() }
+        then:
+            duration < Duration.ofMillis(500)
+            closed == []
+            closeLogs.countCapturedEvents("Beans exceeded close timeout: {}", [["ClosingDependent"]]) == 1
+            closeLogs.countCapturedEvents("Beans left unclosed as dependencies of timed out beans: {}", [["ClosingDependency"]]) == 1
+    }
+
+    def "should measure bean close timeout from the start of the bean close"() {
+        given:
+            List<String> closed = [].asSynchronized()
+            ExecutorService executor = Executors.newSingleThreadExecutor()
+            Context context = Context.builder()
+                    .add(ClosingDependency, "first", { new ClosingDependency(closed, 60) })
+                    .add(ClosingDependency, "second", { new ClosingDependency(closed, 60) })
+                    .closeInDependencyOrder(executor)
+                    .setBeanCloseTimeout(Duration.ofMillis(100))
+                    .build()
+        and:
+            context.get(ClosingDependency, "first")
+            context.get(ClosingDependency, "second")
+        when:
+            context.close()
+        then:
+            closed == ["ClosingDependency", "ClosingDependency"]
+            closeLogs.countCapturedEvents("Beans exceeded close timeout: {}") == 0
+        cleanup:
+            executor.shutdown()
+    }
+
+    def "should stop closing beans that exceed context close timeout"() {
+        given:
+            List<String> closed = [].asSynchronized()
+            Context context = Context.builder()
+                    .add(ClosingDependency, { new ClosingDependency(closed) })
+                    .add(ClosingDependent, { ResolutionContext ctx -> new ClosingDependent(closed, ctx.get(ClosingDependency), 1000) })
+                    .setContextCloseTimeout(Duration.ofMillis(50))
+                    .build()
+        and:
+            context.get(ClosingDependent)
+        when:
+            Duration duration = measure { context.close() }
+        then:
+            duration < Duration.ofMillis(500)
+            closed == []
+            closeLogs.countCapturedEvents("Beans exceeded close timeout: {}", [["ClosingDependent"]]) == 1
+    }
+
+    def "should close beans from the same wave in parallel"() {
+        given:
+            List<String> closed = [].asSynchronized()
+            Context context = Context.builder()
+                    .add(ClosingDependency, "first", { new ClosingDependency(closed, 300) })
+                    .add(ClosingDependency, "second", { new ClosingDependency(closed, 300) })
+                    .closeInDependencyOrderConcurrently()
+                    .build()
+        and:
+            context.get(ClosingDependency, "first")
+            context.get(ClosingDependency, "second")
+        when:
+            Duration duration = measure { context.close() }
+        then:
+            duration < Duration.ofMillis(550)
+            closed == ["ClosingDependency", "ClosingDependency"]
+    }
+
+    def "should post initialize beans created by nested lookups after the whole lookup"() {
+        given:
+            List<String> events = []
+            Context context = Context.builder()
+                    .add(PostInitRoot, { ResolutionContext ctx -> new PostInitRoot(events, ctx.get(PostInitMiddle)) })
+                    .add(PostInitMiddle, { ResolutionContext ctx -> new PostInitMiddle(events, ctx.get(PostInitLeaf)) })
+                    .add(PostInitLeaf, { ResolutionContext ctx -> new PostInitLeaf(events) })
+                    .build()
+
+        when:
+            context.get(PostInitRoot)
+        then:
+            events == [
+                    "create PostInitLeaf",
+                    "create PostInitMiddle",
+                    "create PostInitRoot",
+                    "postInit PostInitLeaf",
+                    "postInit PostInitMiddle",
+                    "postInit PostInitRoot"
+            ]
+
+        when:
+            events.clear()
+            context.get(PostInitRoot)
+            context.get(PostInitMiddle)
+            context.getAll(PostInitLeaf)
+        then:
+            events == []
+            context.getPendingPostInitialization().poll() == null
+    }
+
+    private static Logger closeLogger() {
+        return (Logger) LoggerFactory.getLogger(DependencyOrderCloser)
+    }
+
+    private static Duration measure(Closure<?> action) {
+        long start = System.nanoTime()
+        action()
+        return Duration.ofNanos(System.nanoTime() - start)
+    }
+
+    static class ClosingDependency {
+        final List<String> closed
+        final long closeMs
+
+        ClosingDependency(List<String> closed, long closeMs = 0) {
+            this.closed = closed
+            this.closeMs = closeMs
+        }
+
+        @Close
+        void close() {
+            Thread.sleep(closeMs)
+            closed.add("ClosingDependency")
+        }
+    }
+
+    static class ClosingDependent {
+        final List<String> closed
+        final long closeMs
+
+        ClosingDependent(List<String> closed, ClosingDependency dependency, long closeMs = 0) {
+            this.closed = closed
+            this.closeMs = closeMs
+        }
+
+        @Close
+        void close() {
+            Thread.sleep(closeMs)
+            closed.add("ClosingDependent")
+        }
+    }
+
     static class LifecycleAnnotated {
         boolean initialized = false
         boolean initialized2 = false
@@ -143,6 +375,54 @@ class BeanLifecycleSpec extends Specification {
         }
     }
 
+    static class PostInitRecorder {
+        final List<String> events
+
+        PostInitRecorder(List<String> events) {
+            this.events = events
+            events.add("create " + getClass().simpleName)
+        }
+
+        @PostInit
+        void postInit() {
+            events.add("postInit " + getClass().simpleName)
+        }
+    }
+
+    static class PostInitLeaf extends PostInitRecorder {
+        PostInitLeaf(List<String> events) {
+            super(events)
+        }
+    }
+
+    static class PostInitMiddle extends PostInitRecorder {
+        PostInitMiddle(List<String> events, PostInitLeaf leaf) {
+            super(events)
+        }
+    }
+
+    static class PostInitRoot extends PostInitRecorder {
+        PostInitRoot(List<String> events, PostInitMiddle middle) {
+            super(events)
+        }
+    }
+
+    static class InheritedLifecycle extends LifecycleAnnotated {
+        boolean initializedAfterParent = false
+
+        @Init
+        void initChild() {
+            initializedAfterParent = initialized && initialized2
+        }
+    }
+
+    static class FailingInit {
+        @Init
+        void init() {
+            throw new IllegalStateException("Init failure")
+        }
+    }
+
     static class LifecycleImplemented implements Closeable {
         boolean finalized = false
 
@@ -111,7 +111,168 @@ class BeanResolutionSpec extends Specification {
             bars.size() == 3
     }
 
+    def "should retrieve bean by reference"() {
+        given:
+            Bar unnamed = new Bar()
+            Bar named = new Bar()
+            Context context = Context.builder()
+                    .add(unnamed)
+                    .add(named, "BAR")
+                    .build()
+        when:
+            BeanRef<Bar> ref = context.ref(Bar)
+            BeanRef<Bar> namedRef = context.ref(Bar, "BAR")
+        then:
+            ref.get() == unnamed
+            ref.get() == unnamed
+            namedRef.get() == named
+    }
+
+    def "should fail to create reference to missing bean"() {
+        given:
+            Context context = Context.builder()
+                    .add(new Bar())
+                    .build()
+        when:
+            context.ref(Baz)
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Could not find bean: Baz"
+    }
+
+    def "should fail to retrieve bean by reference from closed context"() {
+        given:
+            Context context = Context.builder()
+                    .add(new Bar())
+                    .build()
+            BeanRef<Bar> ref = context.ref(Bar)
+            ref.get()
+        when:
+            context.close()
+            ref.get()
+        then:
+            thrown(ContextException)
+    }
+
+    def "should not keep bean in reference after context is closed concurrently"() {
+        when:
+            List<Boolean> retrievedAfterClose = (1..200).collect {
+                Context context = Context.builder()
+                        .add(Bar, { new Bar() })
+                        .build()
+                BeanRef<Bar> ref = context.ref(Bar)
+                Thread lookup = Thread.ofVirtual().start {
+                    try {
+                        ref.get()
+                    } catch (ContextException ignored) {
+                        // context closed first
+                    }
+                }
+                context.close()
+                lookup.join()
+                try {
+                    ref.get()
+                    return true
+                } catch (ContextException ignored) {
+                    return false
+                }
+            }
+        then:
+            retrievedAfterClose.every { !it }
+    }
+
+    def "should resolve single unnamed bean over named beans"() {
+        given:
+            BeanHolder<Bar> unnamed = holder(Bar, null)
+
+        when:
+            BeanResolution resolution = BeanResolution.resolve([holder(Bar, "BAR"), unnamed, holder(Bar, "BAR2")])
+        then:
+            resolution.holder().is(unnamed)
+            resolution.candidates() == 3
+            !resolution.isMissing()
+            !resolution.isAmbiguous()
+    }
+
+    def "should resolve multiple unnamed beans as ambiguous"() {
+        when:
+            BeanResolution resolution = BeanResolution.resolve([holder(Bar, null), holder(Bar, "BAR"), holder(Bar, null)])
+        then:
+            resolution.holder() == null
+            resolution.candidates() == 3
+            resolution.isAmbiguous()
+
+        when:
+            Context.builder()
+                    .add(new Bar())
+                    .add(new Bar(), "BAR")
+                    .add(new Bar())
+                    .build()
+                    .ref(Bar)
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Expected single bean: Bar. Found 3 beans."
+    }
+
+    def "should retrieve bean by supertype and interface"() {
+        given:
+            Square square = new Square()
+            Circle circle = new Circle()
+            Context context = Context.builder()
+                    .add(square)
+                    .add(circle, "CIRCLE")
+                    .build()
+
+        expect:
+            context.get(Shape).is(square)
+            context.get(Base).is(square)
+            context.get(Shape, "CIRCLE").is(circle)
+            context.getAll(Shape).toSet() == [square, circle].toSet()
+
+        when:
+            Context.builder()
+                    .add(new Square())
+                    .add(new Circle())
+                    .build()
+                    .getOrNull(Shape)
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Expected single bean: Shape. Found 2 beans."
+    }
+
+    def "should resolve repeated miss to shared missing resolution"() {
+        given:
+            Context context = Context.builder()
+                    .add(new Bar())
+                    .build()
+            int resolutions = context.@resolutions.size()
+
+        expect:
+            BeanResolution.resolve([]).is(BeanResolution.MISSING)
+            BeanResolution.resolve(null).is(BeanResolution.MISSING)
+            BeanResolution.MISSING.isMissing()
+
+        and:
+            context.getOrNull(Baz) == null
+            context.getOrNull(Baz) == null
+            context.getOrNull(Bar, "BAR") == null
+            context.@resolutions.size() == resolutions
+            !context.@resolutions.containsKey(BeanDescriptor.descriptor(Baz))
+    }
+
+    private static <T> BeanHolder<T> holder(Class<T> type, String name) {
+        return BeanHolder.holder(BeanDescriptor.descriptor(type, name), { null } as BeanCreator<T>)
+    }
+
     class Bar {}
 
     class Baz {}
+
+    interface Shape {}
+
+    class Base {}
+
+    class Square extends Base implements Shape {}
+
+    class Circle implements Shape {}
 }
@@ -0,0 +1,221 @@
+package com.coditory.quark.context
+
+import com.coditory.quark.context.annotations.Bean
+import com.coditory.quark.context.annotations.Close
+import com.coditory.quark.context.annotations.Inject
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static com.coditory.quark.context.BeanScope.POOLED
+import static com.coditory.quark.context.BeanScope.PROTOTYPE
+
+class BeanScopeSpec extends Specification {
+    Context context = Context.builder()
+            .scanClass(Prototype)
+            .scanClass(Pooled)
+            .scanClass(Consumer)
+            .build()
+
+    def cleanup() {
+        Pooled.closed = 0
+    }
+
+    def "should create prototype bean on every lookup"() {
+        expect:
+            !context.get(Prototype).is(context.get(Prototype))
+
+        when:
+            BeanRef<Prototype> ref = context.ref(Prototype)
+        then:
+            !ref.get().is(ref.get())
+    }
+
+    def "should inject new prototype instances and bean pool"() {
+        when:
+            Consumer consumer = context.get(Consumer)
+        then:
+            !consumer.first.is(consumer.second)
+            consumer.pool.is(context.getPool(Pooled))
+    }
+
+    def "should borrow and release pooled bean"() {
+        given:
+            BeanPool<Pooled> pool = context.getPool(Pooled)
+
+        when:
+            Pooled first = pool.borrow()
+            Pooled second = pool.borrow()
+            CompletableFuture<Pooled> third = CompletableFuture.supplyAsync { pool.borrow() }
+        then:
+            !first.is(second)
+            !third.isDone()
+
+        when:
+            pool.release(first)
+        then:
+            third.get(1, TimeUnit.SECONDS).is(first)
+
+        when:
+            pool.release(second)
+        then:
+            pool.getMetrics().hits() == 1
+            pool.getMetrics().misses() == 2
+            pool.getMetrics().waits() == 1
+            pool.getMetrics().size() == 2
+            pool.getMetrics().idle() == 1
+    }
+
+    def "should not retrieve pooled bean without its pool"() {
+        when:
+            context.get(Pooled)
+        then:
+            ContextException e = thrown(ContextException)
+            e.cause.message == "Expected pooled bean to be borrowed from its pool: Pooled"
+    }
+
+    def "should not release bean that was not borrowed"() {
+        when:
+            context.getPool(Pooled).release(new Pooled())
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected bean borrowed from the pool: Pooled"
+    }
+
+    def "should close idle pooled beans with the context and borrowed ones on release"() {
+        given:
+            BeanPool<Pooled> pool = context.getPool(Pooled)
+            Pooled idle = pool.borrow()
+            Pooled borrowed = pool.borrow()
+            pool.release(idle)
+
+        when:
+            context.close()
+        then:
+            Pooled.closed == 1
+
+        when:
+            pool.release(borrowed)
+        then:
+            Pooled.closed == 2
+
+        when:
+            pool.borrow()
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Bean pool already closed: Pooled"
+    }
+
+    def "should skip pooled beans when retrieving and injecting all beans of a type"() {
+        given:
+            Context context = Context.builder()
+                    .scanClass(PooledHandler)
+                    .scanClass(SingletonHandler)
+                    .scanClass(Handlers)
+                    .build()
+
+        expect:
+            context.getAll(Handler)*.class == [SingletonHandler]
+            context.get(Handlers).handlers*.class == [SingletonHandler]
+            context.getPool(PooledHandler).borrow() != null
+    }
+
+    def "should resolve lazy prototype dependency once when retrieved concurrently"() {
+        given:
+            Context context = Context.builder()
+                    .scanClass(SlowPrototype)
+                    .scanClass(LazyConsumer)
+                    .build()
+            LazyConsumer consumer = context.get(LazyConsumer)
+
+        when:
+            List<SlowPrototype> beans = Executors.newVirtualThreadPerTaskExecutor().withCloseable { executor ->
+                def futures = (1..16).collect { executor.submit({ consumer.prototype.get() } as Callable<SlowPrototype>) }
+                futures.collect { it.get() }
+            }
+        then:
+            SlowPrototype.created.get() == 1
+            beans.every { it.is(beans[0]) }
+    }
+
+    def "should not create eager non-singleton bean"() {
+        when:
+            new BeanConfig(true, -1, -1, PROTOTYPE, 0)
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Expected eager bean to be a singleton. Got: PROTOTYPE"
+    }
+
+    @Bean(scope = PROTOTYPE)
+    static class Prototype {
+    }
+
+    @Bean(scope = POOLED, poolSize = 2)
+    static class Pooled {
+        static int closed = 0
+
+        @Close
+        void close() {
+            closed++
+        }
+    }
+
+    @Bean(scope = PROTOTYPE)
+    static class SlowPrototype {
+        static AtomicInteger created = new AtomicInteger()
+
+        SlowPrototype() {
+            created.incrementAndGet()
+            Thread.sleep(20)
+        }
+    }
+
+    @Bean
+    static class LazyConsumer {
+        final Lazy<SlowPrototype> prototype
+
+        @Inject
+        LazyConsumer(Lazy<SlowPrototype> prototype) {
+            this.prototype = prototype
+        }
+    }
+
+    interface Handler {
+    }
+
+    @Bean(scope = POOLED)
+    static class PooledHandler implements Handler {
+    }
+
+    @Bean
+    static class SingletonHandler implements Handler {
+    }
+
+    @Bean
+    static class Handlers {
+        final List<Handler> handlers
+
+        @Inject
+        Handlers(List<Handler> handlers) {
+            this.handlers = handlers
+        }
+    }
+
+    @Bean
+    static class Consumer {
+        final Prototype first
+        final Prototype second
+        final BeanPool<Pooled> pool
+
+        @Inject
+        Consumer(Prototype first, Prototype second, BeanPool<Pooled> pool) {
+            this.first = first
+            this.second = second
+            this.pool = pool
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.coditory.quark.context
+
+import com.coditory.quark.context.annotations.Bean
+import com.coditory.quark.context.annotations.Configuration
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.lang.module.ModuleFinder
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.FileTime
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.jar.Attributes
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+import java.util.zip.ZipException
+
+class ClassPathSpec extends Specification {
+    @TempDir
+    Path tempDir
+
+    def "should find top-level classes from a package in a directory"() {
+        given:
+            Path dir = tempDir.resolve("classes")
+            createFiles(dir, [
+                    "com/acme/Foo.class",
+                    "com/acme/Foo\$Nested.class",
+                    "com/acme/package-info.class",
+                    "com/acme/sub/Bar.class",
+                    "com/acme/sub/config.properties",
+                    "com/other/Baz.class"
+            ])
+        when:
+            Set<String> classes = findClasses([dir], "com.acme")
+        then:
+            classes == ["com.acme.Foo", "com.acme.sub.Bar"] as Set
+    }
+
+    def "should find top-level classes from a package in a jar"() {
+        given:
+            Path jar = createJar("lib.jar", [
+                    "com/acme/Foo.class",
+                    "com/acme/Foo\$Nested.class",
+                    "com/acme/sub/Bar.class",
+                    "com/acme.png",
+                    "com/other/Baz.class"
+            ])
+        when:
+            Set<String> classes = findClasses([jar], "com.acme")
+        then:
+            classes == ["com.acme.Foo", "com.acme.sub.Bar"] as Set
+    }
+
+    def "should read bean classes from a jar with a prepended launch script"() {
+        given:
+            Path jar = createJar("lib.jar", [
+                    "com/acme/Foo.class": classFile(ClassPathSpecBean),
+                    "com/acme/Bar.class": classFile(ClassPathSpecPlain)
+            ])
+            Path executable = tempDir.resolve("app.jar")
+            Files.write(executable, "#!/bin/sh\nexec java -jar \"\$0\"\n".bytes)
+            Files.write(executable, Files.readAllBytes(jar), StandardOpenOption.APPEND)
+        when:
+            Set<String> classes = findClasses([executable], "com.acme")
+        then:
+            classes == ["com.acme.Foo"] as Set
+    }
+
+    def "should fall back to jar entries when zip64 end of central directory is corrupted"() {
+        given:
+            Path jar = createJarWithCorruptedZip64Locator("lib.jar", "com/acme/Foo.class")
+        when:
+            Set<String> classes = findClasses([jar], "com.acme")
+        then:
+            classes == ["com.acme.Foo"] as Set
+    }
+
+    def "should reject mapped jar entry that is shorter than its declared size"() {
+        given:
+            Path jar = createJar("lib.jar", ["com/acme/Foo.class": ("content" * 10).bytes])
+            byte[] bytes = Files.readAllBytes(jar)
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+            int centralDirectoryEntry = bytes.length - 22
+            while (buffer.getInt(centralDirectoryEntry) != 0x02014b50) {
+                centralDirectoryEntry--
+            }
+            buffer.putInt(centralDirectoryEntry + 24, buffer.getInt(centralDirectoryEntry + 24) + 10)
+            Files.write(jar, bytes)
+
+        when:
+            MappedJarFile.open(jar.toFile()).read("com/acme/Foo.class")
+        then:
+            ZipException e = thrown(ZipException)
+            e.message.startsWith("Truncated entry: com/acme/Foo.class")
+    }
+
+    def "should skip excluded jars"() {
+        given:
+            Path included = createJar("lib.jar", ["com/acme/Foo.class"])
+            Path excluded = createJar("slf4j-api-2.0.0.jar", ["com/acme/Bar.class"])
+            ClassPathScanConfig config = ClassPathScanConfig.DEFAULT
+                    .withExcludedJar("slf4j-*.jar")
+        when:
+            Set<String> classes = findClasses([included, excluded], "com.acme", config)
+        then:
+            classes == ["com.acme.Foo"] as Set
+    }
+
+    def "should skip class files without bean annotations"() {
+        given:
+            Path dir = tempDir.resolve("classes")
+            copyClassFile(ClassPathSpecBean, dir.resolve("com/acme/Foo.class"))
+            copyClassFile(ClassPathSpecConfiguration, dir.resolve("com/acme/Bar.class"))
+            copyClassFile(ClassPathSpecPlain, dir.resolve("com/acme/Baz.class"))
+        when:
+            Set<String> classes = findClasses([dir], "com.acme")
+        then:
+            classes == ["com.acme.Foo", "com.acme.Bar"] as Set
+    }
+
+    def "should find bean classes in named modules containing the package"() {
+        given:
+            Path acme = createJar("acme-module.jar", [
+                    "com/acme/Foo.class": classFile(ClassPathSpecBean),
+                    "com/acme/Bar.class": classFile(ClassPathSpecPlain)
+            ])
+            Path other = createJar("other-module.jar", [
+                    "com/other/Baz.class": classFile(ClassPathSpecBean)
+            ])
+            java.lang.module.Configuration configuration = ModuleLayer.boot().configuration()
+                    .resolve(ModuleFinder.of(acme, other), ModuleFinder.of(), ["acme.module", "other.module"])
+            ModuleLayer layer = ModuleLayer.boot()
+                    .defineModulesWithOneLoader(configuration, ClassLoader.getSystemClassLoader())
+            ClassLoader classLoader = layer.findLoader("acme.module")
+        when:
+            Set<String> classes = ClassPath.findTopLevelClassesRecursive(classLoader, "com.acme", ClassPathScanConfig.DEFAULT, [layer])
+        then:
+            classes == ["com.acme.Foo"] as Set
+    }
+
+    def "should use bean index instead of scanning the location"() {
+        given:
+            Path dir = tempDir.resolve("classes")
+            createFiles(dir, [
+                    "com/acme/Foo.class",
+                    "com/acme/Bar.class"
+            ])
+            Files.createDirectories(dir.resolve(BeanIndex.RESOURCE_NAME).parent)
+            Files.writeString(dir.resolve(BeanIndex.RESOURCE_NAME), "# comment\ncom.acme.Foo\ncom.other.Baz\n")
+        when:
+            Set<String> classes = findClasses([dir], "com.acme")
+        then:
+            classes == ["com.acme.Foo"] as Set
+    }
+
+    def "should scan locations concurrently in classpath order"() {
+        given:
+            Path shared = createJar("shared.jar", ["com/acme/Shared.class"])
+            Path first = createJar("first.jar", ["com/acme/First.class"], "shared.jar")
+            Path second = createJar("second.jar", ["com/acme/Second.class"], "shared.jar")
+            List<Path> others = (0..<20).collect { createJar("other-${it}.jar", ["com/acme/Other${it}.class"]) }
+            List<Path> locations = [first, second] + others
+            ExecutorService executor = Executors.newFixedThreadPool(4)
+            ClassPathScanConfig config = ClassPathScanConfig.DEFAULT
+                    .withExecutor(executor)
+        when:
+            List<String> classes = findClasses(locations, "com.acme", config) as List
+        then:
+            classes == ["com.acme.Shared", "com.acme.First", "com.acme.Second"] + (0..<20).collect { "com.acme.Other${it}".toString() }
+        cleanup:
+            executor?.shutdown()
+    }
+
+    def "should reuse jar scan results from cache until jar changes"() {
+        given:
+            Path jar = createJar("lib.jar", ["com/acme/Foo.class"])
+            ClassPathScanConfig config = ClassPathScanConfig.DEFAULT
+                    .withCacheFile(tempDir.resolve("cache/scan.bin"))
+        and:
+            findClasses([jar], "com.acme", config)
+            FileTime lastModified = Files.getLastModifiedTime(jar)
+
+        when: "jar content changes without changing size and modification time"
+            Files.write(jar, new byte[(int) Files.size(jar)])
+            Files.setLastModifiedTime(jar, lastModified)
+        then:
+            findClasses([jar], "com.acme", config) == ["com.acme.Foo"] as Set
+
+        when:
+            Files.setLastModifiedTime(jar, FileTime.fromMillis(lastModified.toMillis() + 1000))
+        then:
+            findClasses([jar], "com.acme", config).isEmpty()
+    }
+
+    private Set<String> findClasses(List<Path> locations, String packageName, ClassPathScanConfig config = ClassPathScanConfig.DEFAULT) {
+        URL[] urls = locations.collect { it.toUri().toURL() } as URL[]
+        ClassLoader classLoader = new URLClassLoader(urls, (ClassLoader) null)
+        return ClassPath.findTopLevelClassesRecursive(classLoader, packageName, config)
+    }
+
+    private void createFiles(Path dir, List<String> files) {
+        files.each {
+            Path file = dir.resolve(it)
+            Files.createDirectories(file.parent)
+            Files.writeString(file, "")
+        }
+    }
+
+    private void copyClassFile(Class<?> type, Path target) {
+        Files.createDirectories(target.parent)
+        Files.write(target, classFile(type))
+    }
+
+    private byte[] classFile(Class<?> type) {
+        return getClass().getResourceAsStream("/" + type.name.replace('.', '/') + ".class").withCloseable {
+            it.readAllBytes()
+        }
+    }
+
+    // zip64 locator stored in the last entry comment, pointing past the end of the file
+    private Path createJarWithCorruptedZip64Locator(String name, String entryName) {
+        Path jar = tempDir.resolve(name)
+        byte[] bytes
+        int padding = 0
+        while (true) {
+            new JarOutputStream(Files.newOutputStream(jar)).withCloseable { output ->
+                JarEntry entry = new JarEntry(entryName)
+                entry.setComment("x" * (20 + padding++))
+                output.putNextEntry(entry)
+                output.closeEntry()
+            }
+            bytes = Files.readAllBytes(jar)
+            // keep comment a valid UTF-8 string
+            if (((bytes.length - 2) & 0x8080) == 0) {
+                break
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+        int end = bytes.length - 22
+        buffer.putInt(end - 20, 0x07064b50)
+        buffer.putInt(end - 16, 0)
+        buffer.putLong(end - 12, bytes.length - 2)
+        buffer.putInt(end - 4, 1)
+        buffer.putShort(end + 10, (short) 0xFFFF)
+        Files.write(jar, bytes)
+        return jar
+    }
+
+    private Path createJar(String name, List<String> entries, String manifestClassPath = null) {
+        return createJar(name, entries.collectEntries { [it, new byte[0]] }, manifestClassPath)
+    }
+
+    private Path createJar(String name, Map<String, byte[]> entries, String manifestClassPath = null) {
+        Path jar = tempDir.resolve(name)
+        Manifest manifest = new Manifest()
+        manifest.mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0")
+        if (manifestClassPath != null) {
+            manifest.mainAttributes.put(Attributes.Name.CLASS_PATH, manifestClassPath)
+        }
+        new JarOutputStream(Files.newOutputStream(jar), manifest).withCloseable { output ->
+            entries.each { entryName, content ->
+                output.putNextEntry(new JarEntry(entryName))
+                output.write(content)
+                output.closeEntry()
+            }
+        }
+        return jar
+    }
+}
+
+@Bean
+class ClassPathSpecBean {
+}
+
+@Configuration
+class ClassPathSpecConfiguration {
+}
+
+class ClassPathSpecPlain {
+}
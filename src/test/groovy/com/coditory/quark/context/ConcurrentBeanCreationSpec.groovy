@@ -0,0 +1,202 @@
+package com.coditory.quark.context
+
+import com.coditory.quark.context.annotations.Init
+import com.coditory.quark.context.annotations.PostInit
+import com.coditory.quark.context.events.ContextEvent.BeanPostCreateEvent
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class ConcurrentBeanCreationSpec extends Specification {
+    def "should create lazy bean once when retrieved concurrently"() {
+        given:
+            AtomicInteger created = new AtomicInteger()
+            Context context = Context.builder()
+                    .add(SlowBean, { ResolutionContext ctx ->
+                        created.incrementAndGet()
+                        Thread.sleep(50)
+                        return new SlowBean()
+                    })
+                    .build()
+            CountDownLatch start = new CountDownLatch(1)
+            Callable<SlowBean> task = {
+                start.await()
+                return context.get(SlowBean)
+            }
+
+        when:
+            List<SlowBean> beans = Executors.newVirtualThreadPerTaskExecutor().withCloseable { executor ->
+                def futures = (1..32).collect { executor.submit(task) }
+                start.countDown()
+                futures.collect { it.get() }
+            }
+
+        then:
+            created.get() == 1
+            beans.unique(false) { System.identityHashCode(it) }.size() == 1
+        and:
+            beans.every { it.initialized && it.postInitialized }
+    }
+
+    def "should not post initialize bean created by another thread in the middle of bean creation"() {
+        given:
+            AtomicInteger created = new AtomicInteger()
+            CountDownLatch postInitScheduled = new CountDownLatch(1)
+            CountDownLatch outerCreated = new CountDownLatch(1)
+            Context context = Context.builder()
+                    .subscribe(BeanPostCreateEvent, { BeanPostCreateEvent event ->
+                        if (event.descriptor().type() == PostInitDependent) {
+                            // hold the dependent bean between its creation and post initialization
+                            postInitScheduled.countDown()
+                            outerCreated.await(1, TimeUnit.SECONDS)
+                        }
+                    })
+                    .add(Outer, { ResolutionContext ctx ->
+                        created.incrementAndGet()
+                        postInitScheduled.await(1, TimeUnit.SECONDS)
+                        ctx.get(Inner)
+                        return new Outer()
+                    })
+                    .add(Inner, { ResolutionContext ctx -> new Inner() })
+                    .add(PostInitDependent, { ResolutionContext ctx -> new PostInitDependent() })
+                    .build()
+
+        when:
+            List<Object> beans = Executors.newVirtualThreadPerTaskExecutor().withCloseable { executor ->
+                Future<Outer> outer = executor.submit({
+                    try {
+                        return context.get(Outer)
+                    } finally {
+                        outerCreated.countDown()
+                    }
+                } as Callable<Outer>)
+                Future<PostInitDependent> dependent = executor.submit({
+                    context.get(PostInitDependent)
+                } as Callable<PostInitDependent>)
+                [outer.get(), dependent.get()]
+            }
+
+        then:
+            created.get() == 1
+            beans[1].outer.is(beans[0])
+    }
+
+    def "should create eager beans concurrently"() {
+        given:
+            CountDownLatch created = new CountDownLatch(2)
+
+        when:
+            Context context = Context.builder()
+                    .add(Outer, { ResolutionContext ctx ->
+                        created.countDown()
+                        assert created.await(1, TimeUnit.SECONDS)
+                        return new Outer()
+                    })
+                    .add(Inner, { ResolutionContext ctx ->
+                        created.countDown()
+                        assert created.await(1, TimeUnit.SECONDS)
+                        return new Inner()
+                    })
+                    .buildEagerConcurrently()
+
+        then:
+            context.get(Outer) != null
+            context.get(Inner) != null
+    }
+
+    def "should skip outstanding eager creations and close created beans on failure"() {
+        given:
+            AtomicInteger created = new AtomicInteger()
+            ClosableBean closable = new ClosableBean()
+
+        when:
+            Context.builder()
+                    .add(ClosableBean, { ResolutionContext ctx -> closable })
+                    .add(Outer, { ResolutionContext ctx -> throw new IllegalStateException("Failed") })
+                    .add(Inner, { ResolutionContext ctx ->
+                        created.incrementAndGet()
+                        return new Inner()
+                    })
+                    .buildEager()
+
+        then:
+            ContextException e = thrown(ContextException)
+            e.message == "Could not create beans: Outer"
+            e.cause.message == "Failed"
+        and:
+            created.get() == 0
+            closable.closed
+    }
+
+    def "should detect cyclic dependency between eager beans created concurrently"() {
+        given:
+            CountDownLatch locked = new CountDownLatch(2)
+
+        when:
+            Context.builder()
+                    .add(Outer, { ResolutionContext ctx ->
+                        locked.countDown()
+                        locked.await(1, TimeUnit.SECONDS)
+                        ctx.get(Inner)
+                        return new Outer()
+                    })
+                    .add(Inner, { ResolutionContext ctx ->
+                        locked.countDown()
+                        locked.await(1, TimeUnit.SECONDS)
+                        ctx.get(Outer)
+                        return new Inner()
+                    })
+                    .buildEagerConcurrently()
+
+        then:
+            ContextException e = thrown(ContextException)
+            e.message.startsWith("Could not create beans: ")
+            e.cause instanceof CyclicDependencyException
+    }
+
+    static class Outer {
+    }
+
+    static class Inner {
+    }
+
+    static class ClosableBean implements Closeable {
+        boolean closed
+
+        @Override
+        void close() {
+            closed = true
+        }
+    }
+
+    static class PostInitDependent {
+        Outer outer
+
+        @PostInit
+        void postInit(Outer outer) {
+            this.outer = outer
+        }
+    }
+
+    static class SlowBean {
+        boolean initialized
+        boolean postInitialized
+
+        @Init
+        void init() {
+            Thread.sleep(20)
+            initialized = true
+        }
+
+        @PostInit
+        void postInit() {
+            Thread.sleep(20)
+            postInitialized = true
+        }
+    }
+}
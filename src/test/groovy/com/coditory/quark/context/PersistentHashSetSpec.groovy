@@ -0,0 +1,84 @@
+package com.coditory.quark.context
+
+import spock.lang.Specification
+
+class PersistentHashSetSpec extends Specification {
+    def "should add elements without modifying previous version"() {
+        given:
+            PersistentHashSet<String> empty = PersistentHashSet.empty()
+            PersistentHashSet<String> first = empty.with("a")
+
+        when:
+            PersistentHashSet<String> second = first.with("b")
+
+        then:
+            !empty.contains("a")
+            first.contains("a")
+            !first.contains("b")
+            second.contains("a")
+            second.contains("b")
+            second.size() == 2
+    }
+
+    def "should return the same set when element is already present"() {
+        given:
+            PersistentHashSet<String> set = PersistentHashSet.<String> empty().with("a")
+
+        expect:
+            set.with("a").is(set)
+    }
+
+    def "should support null element"() {
+        when:
+            PersistentHashSet<String> set = PersistentHashSet.<String> empty().with(null)
+
+        then:
+            set.contains(null)
+            set.size() == 1
+    }
+
+    def "should handle elements with colliding hashes"() {
+        given:
+            PersistentHashSet<Object> set = PersistentHashSet.empty()
+            List<CollidingKey> keys = (0..<100).collect { new CollidingKey(it) }
+
+        when:
+            keys.each { set = set.with(it) }
+
+        then:
+            set.size() == 100
+            keys.every { set.contains(it) }
+            !set.contains(new CollidingKey(100))
+    }
+
+    def "should contain all added elements"() {
+        given:
+            PersistentHashSet<Integer> set = PersistentHashSet.empty()
+
+        when:
+            (0..<10_000).each { set = set.with(it) }
+
+        then:
+            set.size() == 10_000
+            (0..<10_000).every { set.contains(it) }
+            !set.contains(10_000)
+    }
+
+    static class CollidingKey {
+        final int id
+
+        CollidingKey(int id) {
+            this.id = id
+        }
+
+        @Override
+        boolean equals(Object other) {
+            return other instanceof CollidingKey && other.id == id
+        }
+
+        @Override
+        int hashCode() {
+            return 42
+        }
+    }
+}
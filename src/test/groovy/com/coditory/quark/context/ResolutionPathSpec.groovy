@@ -0,0 +1,68 @@
+package com.coditory.quark.context
+
+import spock.lang.Specification
+
+import static com.coditory.quark.context.BeanDescriptor.descriptor
+import static com.coditory.quark.context.ResolutionPath.emptyResolutionPath
+
+class ResolutionPathSpec extends Specification {
+    def "should add elements without modifying parent path"() {
+        given:
+            ResolutionPath parent = ResolutionPath.of(Foo)
+
+        when:
+            ResolutionPath path = parent.add(Bar).add(Baz, "baz")
+
+        then:
+            parent.size() == 1
+            path.size() == 3
+            path.first() == descriptor(Foo)
+            path.last() == descriptor(Baz, "baz")
+            path.get(1) == descriptor(Bar)
+            path.contains(Bar)
+            !parent.contains(Bar)
+            path.getParent(descriptor(Baz, "baz")) == descriptor(Bar)
+            path.getParent(descriptor(Foo)) == null
+            path.toPathAsString() == "Foo -> Bar -> Baz:baz"
+    }
+
+    def "should compare paths by elements"() {
+        expect:
+            ResolutionPath.of(Foo, Bar) == emptyResolutionPath().add(Foo).add(Bar)
+            ResolutionPath.of(Foo, Bar).hashCode() == emptyResolutionPath().add(Foo).add(Bar).hashCode()
+            ResolutionPath.of(Foo, Bar) != ResolutionPath.of(Bar, Foo)
+            ResolutionPath.of(Foo, Bar).removeLast() == ResolutionPath.of(Foo)
+            ResolutionPath.of(Foo, Bar).removeFirst() == ResolutionPath.of(Bar)
+    }
+
+    def "should not add duplicated element"() {
+        when:
+            ResolutionPath.of(Foo, Bar).add(Foo)
+
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Duplicated element on resolution path"
+    }
+
+    def "should build deep path"() {
+        given:
+            int depth = 10_000
+            ResolutionPath path = emptyResolutionPath()
+
+        when:
+            for (int i = 0; i < depth; ++i) {
+                path = path.add(Foo, "foo" + i)
+            }
+
+        then:
+            path.size() == depth
+            path.contains(Foo, "foo0")
+            path.getParent(descriptor(Foo, "foo" + (depth - 1))) == descriptor(Foo, "foo" + (depth - 2))
+    }
+
+    static class Foo {}
+
+    static class Bar {}
+
+    static class Baz {}
+}
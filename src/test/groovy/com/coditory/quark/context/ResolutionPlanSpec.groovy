@@ -0,0 +1,150 @@
+package com.coditory.quark.context
+
+import ch.qos.logback.classic.Logger
+import com.coditory.quark.context.base.CapturingAppender
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.function.Predicate
+
+class ResolutionPlanSpec extends Specification {
+    @TempDir
+    Path tempDir
+
+    CapturingAppender resolverLogs = new CapturingAppender()
+
+    void setup() {
+        resolverLogger().addAppender(resolverLogs)
+    }
+
+    void cleanup() {
+        resolverLogger().detachAppender(resolverLogs)
+    }
+
+    def "should reuse resolution plan when definitions and condition inputs did not change"() {
+        given:
+            Path planFile = tempDir.resolve("plan.bin")
+
+        when:
+            Context first = buildContext(planFile, true)
+        then:
+            Files.exists(planFile)
+            first.getOrNull(Bar) != null
+            first.getOrNull(Foo) == null
+            planUsages() == 0
+
+        when:
+            Context second = buildContext(planFile, true)
+        then:
+            second.getOrNull(Bar) != null
+            second.getOrNull(Foo) == null
+            planUsages() == 1
+    }
+
+    def "should resolve context again when property checked by condition changed"() {
+        given:
+            Path planFile = tempDir.resolve("plan.bin")
+            buildContext(planFile, true)
+
+        when:
+            Context context = buildContext(planFile, false)
+        then:
+            context.getOrNull(Bar) == null
+            context.getOrNull(Foo) != null
+            planUsages() == 0
+    }
+
+    def "should resolve context when plan file is corrupted"() {
+        given:
+            Path planFile = tempDir.resolve("plan.bin")
+            Files.write(planFile, [1, 2, 3] as byte[])
+
+        when:
+            Context context = buildContext(planFile, true)
+        then:
+            context.getOrNull(Bar) != null
+            context.getOrNull(Foo) == null
+    }
+
+    def "should not store resolution plan for condition not created by bean conditions"() {
+        given:
+            Path planFile = tempDir.resolve("plan.bin")
+            AtomicBoolean barEnabled = new AtomicBoolean(true)
+            Closure<Context> build = {
+                Context.builder()
+                        .add(Bar.class, { barEnabled.get() }, { new Bar() })
+                        .add(Foo.class, BeanConditions.onMissingBean([Bar] as Class[], [] as String[]), { new Foo() })
+                        .setResolutionPlanFile(planFile)
+                        .build()
+            }
+
+        when:
+            Context first = build()
+        then:
+            first.getOrNull(Bar) != null
+            !Files.exists(planFile)
+
+        when:
+            barEnabled.set(false)
+            Context second = build()
+        then:
+            second.getOrNull(Bar) == null
+            second.getOrNull(Foo) != null
+            planUsages() == 0
+    }
+
+    def "should not store resolution plan for bean conditions combined with a lambda"() {
+        given:
+            Path planFile = tempDir.resolve("plan.bin")
+            AtomicBoolean barEnabled = new AtomicBoolean(true)
+            Closure<Context> build = {
+                Context.builder()
+                        .add(Bar.class, BeanConditions.allOf(barProperty(), { barEnabled.get() }), { new Bar() })
+                        .setProperty("bar.enabled", true)
+                        .setResolutionPlanFile(planFile)
+                        .build()
+            }
+
+        when:
+            Context first = build()
+        then:
+            first.getOrNull(Bar) != null
+            !Files.exists(planFile)
+
+        when:
+            barEnabled.set(false)
+            Context second = build()
+        then:
+            second.getOrNull(Bar) == null
+            planUsages() == 0
+    }
+
+    private Context buildContext(Path planFile, boolean barEnabled) {
+        return Context.builder()
+                .add(Bar.class, barProperty(), { new Bar() })
+                .add(Foo.class, BeanConditions.onMissingBean([Bar] as Class[], [] as String[]), { new Foo() })
+                .setProperty("bar.enabled", barEnabled)
+                .setResolutionPlanFile(planFile)
+                .build()
+    }
+
+    private static Predicate<ConditionContext> barProperty() {
+        return BeanConditions.onProperty(["bar.enabled"] as String[], "true", false)
+    }
+
+    private int planUsages() {
+        return resolverLogs.countCapturedEvents("Using resolution plan: {}")
+    }
+
+    private static Logger resolverLogger() {
+        return (Logger) LoggerFactory.getLogger(ContextResolver)
+    }
+
+    static class Bar {}
+
+    static class Foo {}
+}